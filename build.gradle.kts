@@ -15,5 +15,26 @@ dependencies {
 }
 
 tasks.test {
-    useJUnitPlatform()
-}
\ No newline at end of file
+    useJUnitPlatform {
+        excludeTags("performance")
+    }
+}
+
+// workload-driven performance regression suite, run by: ./gradlew perfTest [-Pperf.maxScale=1000000]
+tasks.register<Test>("perfTest") {
+    description = "Runs performance regression tests asserting complexity bounds."
+    group = "verification"
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    useJUnitPlatform {
+        includeTags("performance")
+    }
+    maxHeapSize = "2g"
+    // full collections compact all dead objects, so heap measurements of memory footprint tests are exact
+    jvmArgs("-XX:MarkSweepDeadRatio=0")
+    systemProperty("perf.maxScale", project.findProperty("perf.maxScale") ?: "10000000")
+    testLogging {
+        showStandardStreams = true
+    }
+    shouldRunAfter(tasks.test)
+}
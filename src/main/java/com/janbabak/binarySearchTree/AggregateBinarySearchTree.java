@@ -0,0 +1,183 @@
+package com.janbabak.binarySearchTree;
+
+import com.janbabak.memory.MemoryFootprint;
+import com.janbabak.memory.MemoryLayout;
+
+/**
+ * binary search tree with aggregates - nodes cache summaries of their subtrees, so ranges are reduced in O(height)
+ * @param <T> type of node value,it has to extend Comparable
+ * @param <A> type of summary
+ */
+public class AggregateBinarySearchTree<T extends Comparable<? super T>, A> extends BinarySearchTree<T> {
+
+    /**
+     * summary of values cached by nodes
+     */
+    private final Monoid<? super T, A> monoid;
+
+    /**
+     * estimated bytes of summaries cached by nodes
+     */
+    private long aggregateBytes;
+
+    /**
+     * constructor - create empty binary tree with aggregates
+     * @param monoid summary of values, which nodes cache for their subtrees
+     */
+    public AggregateBinarySearchTree(Monoid<? super T, A> monoid) {
+        if (monoid == null) {
+            throw new IllegalArgumentException("monoid must not be null");
+        }
+        this.monoid = monoid;
+        this.aggregateBytes = 0;
+    }
+
+    /**
+     * reduce values from range by monoid of tree
+     * @param from the least value of range (inclusive)
+     * @param to the greatest value of range (inclusive)
+     * @return summary of values from range, identity if range is empty
+     */
+    public A aggregate(T from, T to) {
+        return aggregateHelper(from, to, getRoot());
+    }
+
+    /**
+     * estimate memory retained by tree, it is maintained by insert and delete, so it doesn't walk the tree
+     * @return estimated footprint of tree, its nodes, values and cached summaries
+     */
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        MemoryFootprint footprint = super.memoryFootprint();
+        return footprint.withValues(footprint.getEntries(), footprint.getValueBytes() + aggregateBytes);
+    }
+
+    /**
+     * create node, which caches summary of its subtree
+     * @param value inserted value
+     * @param parent parent of node or null if node is root
+     * @return created node
+     */
+    @Override
+    protected Node<T> createNode(T value, Node<T> parent) {
+        return new AggregateNode<T, A>(value, parent);
+    }
+
+    /**
+     * recompute cached summary of node from its descendants
+     * @param node node to update
+     */
+    @Override
+    protected void updateNode(Node<T> node) {
+        AggregateNode<T, A> aggregateNode = asAggregateNode(node);
+        A aggregate = monoid.combine(aggregateOf(node.getLeft()), monoid.lift(node.getValue()));
+        aggregate = monoid.combine(aggregate, aggregateOf(node.getRight()));
+        aggregateBytes += MemoryLayout.sizeOf(aggregate) - MemoryLayout.sizeOf(aggregateNode.getAggregate());
+        aggregateNode.setAggregate(aggregate);
+    }
+
+    /**
+     * recompute cached summaries of all ancestors of removed node, they don't contain it anymore
+     * @param node removed node
+     * @param parent the lowest node, which subtree changed, or null if root was removed
+     */
+    @Override
+    protected void nodeRemoved(Node<T> node, Node<T> parent) {
+        aggregateBytes -= MemoryLayout.sizeOf(asAggregateNode(node).getAggregate());
+        while (parent != null) {
+            updateNode(parent);
+            parent = parent.getParent();
+        }
+    }
+
+    /**
+     * return cached summary of subtree
+     * @param node root of subtree
+     * @return summary of subtree or identity if subtree is empty
+     */
+    private A aggregateOf(Node<T> node) {
+        if (node == null) {
+            return monoid.identity();
+        }
+        return asAggregateNode(node).getAggregate();
+    }
+
+    /**
+     * return node as node with aggregate, all nodes of this tree are created by createNode
+     * @param node node of this tree
+     * @return node with aggregate
+     */
+    @SuppressWarnings("unchecked")
+    private AggregateNode<T, A> asAggregateNode(Node<T> node) {
+        return (AggregateNode<T, A>) node;
+    }
+
+    /**
+     * recursive helper, which reduces values from range in subtree, only one path is visited
+     * until the range splits, then one path on each side
+     * @param from the least value of range (inclusive)
+     * @param to the greatest value of range (inclusive)
+     * @param node root of subtree
+     * @return summary of values from range
+     */
+    private A aggregateHelper(T from, T to, Node<T> node) {
+        // stop recursion
+        if (node == null) {
+            return monoid.identity();
+        }
+        // whole range is in right subtree
+        if (node.getValue().compareTo(from) < 0) {
+            return aggregateHelper(from, to, node.getRight());
+        }
+        // whole range is in left subtree
+        if (node.getValue().compareTo(to) > 0) {
+            return aggregateHelper(from, to, node.getLeft());
+        }
+
+        // range splits at this node
+        A aggregate = monoid.combine(aggregateFromHelper(from, node.getLeft()), monoid.lift(node.getValue()));
+        return monoid.combine(aggregate, aggregateToHelper(to, node.getRight()));
+    }
+
+    /**
+     * recursive helper, which reduces values greater than or equal to from in subtree
+     * @param from the least value of range (inclusive)
+     * @param node root of subtree
+     * @return summary of values from range
+     */
+    private A aggregateFromHelper(T from, Node<T> node) {
+        // stop recursion
+        if (node == null) {
+            return monoid.identity();
+        }
+        // node and its left subtree are out of range
+        if (node.getValue().compareTo(from) < 0) {
+            return aggregateFromHelper(from, node.getRight());
+        }
+
+        // node and its right subtree are in range
+        A aggregate = monoid.combine(aggregateFromHelper(from, node.getLeft()), monoid.lift(node.getValue()));
+        return monoid.combine(aggregate, aggregateOf(node.getRight()));
+    }
+
+    /**
+     * recursive helper, which reduces values less than or equal to to in subtree
+     * @param to the greatest value of range (inclusive)
+     * @param node root of subtree
+     * @return summary of values from range
+     */
+    private A aggregateToHelper(T to, Node<T> node) {
+        // stop recursion
+        if (node == null) {
+            return monoid.identity();
+        }
+        // node and its right subtree are out of range
+        if (node.getValue().compareTo(to) > 0) {
+            return aggregateToHelper(to, node.getLeft());
+        }
+
+        // node and its left subtree are in range
+        A aggregate = monoid.combine(aggregateOf(node.getLeft()), monoid.lift(node.getValue()));
+        return monoid.combine(aggregate, aggregateToHelper(to, node.getRight()));
+    }
+}
@@ -0,0 +1,39 @@
+package com.janbabak.binarySearchTree;
+
+/**
+ * node of binary tree with aggregates, it caches summary of its subtree
+ * @param <T> type of node value has to extend Comparable
+ * @param <A> type of summary
+ */
+class AggregateNode<T extends Comparable<? super T>, A> extends Node<T> {
+
+    /**
+     * cached summary of subtree
+     */
+    private A aggregate;
+
+    /**
+     * constructor
+     * @param value value stored in node
+     * @param parent parent node
+     */
+    AggregateNode(T value, Node<T> parent) {
+        super(value, parent);
+    }
+
+    /**
+     * aggregate getter
+     * @return summary of subtree
+     */
+    A getAggregate() {
+        return aggregate;
+    }
+
+    /**
+     * aggregate setter
+     * @param aggregate new summary of subtree
+     */
+    void setAggregate(A aggregate) {
+        this.aggregate = aggregate;
+    }
+}
@@ -1,37 +1,251 @@
 package com.janbabak.binarySearchTree;
 
+import com.janbabak.memory.MemoryFootprint;
+import com.janbabak.memory.MemoryLayout;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
 /**
- * generic binary search tree
+ * generic binary search tree, optionally bounded (evicts min or max value, when capacity is exceeded),
+ * with time to live (values expire incrementally, few of them by each operation)
+ * or with lazy deletion (deleted nodes become tombstones, which are removed incrementally),
+ * tree with aggregates is {@link AggregateBinarySearchTree}
  * @param <T> type of node value,it has to extend Comparable
  */
 public class BinarySearchTree<T extends Comparable<? super T>> {
 
+    /**
+     * max number of expired values removed by one operation
+     */
+    private static final int EXPIRATIONS_PER_OPERATION = 2;
+
+    /**
+     * max number of tombstones removed by one operation
+     */
+    private static final int COMPACTIONS_PER_OPERATION = 2;
+
     /**
      * root node of the tree
      */
     private Node<T> root;
 
+    /**
+     * number of nodes
+     */
+    private int size;
+
+    /**
+     * node with min value
+     */
+    private Node<T> minNode;
+
+    /**
+     * node with max value
+     */
+    private Node<T> maxNode;
+
+    /**
+     * max number of values or 0 if tree isn't bounded
+     */
+    private final int capacity;
+
+    /**
+     * which value is evicted, when capacity is exceeded
+     */
+    private final Eviction eviction;
+
+    /**
+     * time to live of values in nanoseconds
+     */
+    private final long timeToLive;
+
+    /**
+     * source of current time in nanoseconds
+     */
+    private final LongSupplier clock;
+
+    /**
+     * values in order of expiration or null if values don't expire
+     */
+    private final Deque<Expiration<T>> expirations;
+
+    /**
+     * ratio of tombstones to nodes, above which tombstones are removed
+     */
+    private final double compactionThreshold;
+
+    /**
+     * number of tombstones
+     */
+    private int tombstones;
+
+    /**
+     * values of tombstones in order of deletion or null if deletion isn't lazy
+     */
+    private final Deque<T> tombstoneValues;
+
+    /**
+     * estimated bytes of values stored in nodes
+     */
+    private long valueBytes;
+
+    /**
+     * scheduled expiration of value
+     * @param value value to expire
+     * @param expiresAt time, when value expires
+     * @param <V> type of value
+     */
+    private record Expiration<V>(V value, long expiresAt) {
+    }
+
     /**
      * constructor - create empty binary tree
      */
     public BinarySearchTree() {
-        root = null;
+        this(0, null, 0, null, 0);
+    }
+
+    /**
+     * create empty bounded binary tree
+     * @param capacity max number of values
+     * @param eviction which value is evicted, when capacity is exceeded
+     * @param <T> type of node value
+     * @return empty bounded tree
+     */
+    public static <T extends Comparable<? super T>> BinarySearchTree<T> bounded(int capacity, Eviction eviction) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        if (eviction == null) {
+            throw new IllegalArgumentException("eviction must not be null");
+        }
+        return new BinarySearchTree<>(capacity, eviction, 0, null, 0);
+    }
+
+    /**
+     * create empty binary tree, which values expire
+     * @param timeToLive time after insertion, when value expires
+     * @param <T> type of node value
+     * @return empty tree with time to live
+     */
+    public static <T extends Comparable<? super T>> BinarySearchTree<T> withTimeToLive(Duration timeToLive) {
+        return withTimeToLive(timeToLive, System::nanoTime);
+    }
+
+    /**
+     * create empty binary tree, which values expire
+     * @param timeToLive time after insertion, when value expires
+     * @param clock source of current time in nanoseconds
+     * @param <T> type of node value
+     * @return empty tree with time to live
+     */
+    public static <T extends Comparable<? super T>> BinarySearchTree<T> withTimeToLive(Duration timeToLive,
+                                                                                     LongSupplier clock) {
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("time to live must be positive: " + timeToLive);
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("clock must not be null");
+        }
+        return new BinarySearchTree<>(0, null, timeToLive.toNanos(), clock, 0);
+    }
+
+    /**
+     * create empty binary tree with lazy deletion
+     * @param compactionThreshold ratio of tombstones to nodes, above which tombstones are removed, from 0 to 1
+     * @param <T> type of node value
+     * @return empty tree with lazy deletion
+     */
+    public static <T extends Comparable<? super T>> BinarySearchTree<T> withLazyDeletion(double compactionThreshold) {
+        if (!(compactionThreshold > 0 && compactionThreshold < 1)) {
+            throw new IllegalArgumentException("compaction threshold must be between 0 and 1: " + compactionThreshold);
+        }
+        return new BinarySearchTree<>(0, null, 0, null, compactionThreshold);
     }
 
     /**
-     * insert value, if vale already is there, do nothing
+     * constructor
+     * @param capacity max number of values or 0 if tree isn't bounded
+     * @param eviction which value is evicted, when capacity is exceeded
+     * @param timeToLive time to live of values in nanoseconds
+     * @param clock source of current time in nanoseconds or null if values don't expire
+     * @param compactionThreshold ratio of tombstones to nodes, above which tombstones are removed,
+     *                            or 0 if deletion isn't lazy
+     */
+    private BinarySearchTree(int capacity, Eviction eviction, long timeToLive, LongSupplier clock,
+                             double compactionThreshold) {
+        this.root = null;
+        this.size = 0;
+        this.capacity = capacity;
+        this.eviction = eviction;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.expirations = clock != null ? new ArrayDeque<>() : null;
+        this.compactionThreshold = compactionThreshold;
+        this.tombstones = 0;
+        this.tombstoneValues = compactionThreshold > 0 ? new ArrayDeque<>() : null;
+        this.valueBytes = 0;
+    }
+
+    /**
+     * insert value, if vale already is there, do nothing,
+     * if capacity of bounded tree is exceeded, evict min or max value
      * @param value value to insert
      */
     public void insert(T value) {
+        maintain();
+        int oldSize = size;
         root = insertHelper(value, root, null);
+        if (size == oldSize) {
+            return;
+        }
+
+        // new min is left descendant of old min, new max is right descendant of old max
+        if (minNode == null) {
+            minNode = root;
+            maxNode = root;
+        } else {
+            if (minNode.getLeft() != null) {
+                minNode = minNode.getLeft();
+            }
+            if (maxNode.getRight() != null) {
+                maxNode = maxNode.getRight();
+            }
+        }
+
+        if (capacity > 0 && size > capacity) {
+            if (eviction == Eviction.MIN) {
+                deleteMinNode();
+            } else {
+                deleteMaxNode();
+            }
+        }
     }
 
     /**
-     * delete value from tree, if value isn't there, do nothing
+     * delete value from tree, if value isn't there, do nothing,
+     * tree with lazy deletion only marks node as tombstone
      * @param value value to delete
      */
     public void delete(T value) {
-        deleteHelper(value, root);
+        maintain();
+        if (tombstoneValues == null) {
+            deleteValue(value);
+            return;
+        }
+
+        Node<T> node = findByValueHelper(value, root);
+        if (node != null && !node.isDeleted()) {
+            node.setDeleted(true);
+            tombstones++;
+            tombstoneValues.addLast(node.getValue());
+        }
     }
 
     /**
@@ -44,11 +258,22 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
     }
 
     /**
-     * check if tree is empty
+     * check if tree is empty, it looks for min like min(), so it removes expired values and tombstones
+     * at the left edge of tree
      * @return true if tree is empty, otherwise false
      */
     public boolean empty() {
-        return root == null;
+        return min() == null;
+    }
+
+    /**
+     * return number of values, tree with time to live removes all expired values first
+     * (they expire in order of insertion, so only the expired ones are visited)
+     * @return number of values
+     */
+    public int size() {
+        expire(Integer.MAX_VALUE);
+        return size - tombstones;
     }
 
     /**
@@ -56,9 +281,12 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
      * @return max value or null if tree is empty
      */
     public T max() {
-        Node<T> mostRight = getMostRight(root);
-        if (mostRight != null) {
-            return mostRight.getValue();
+        maintain();
+        while (maxNode != null && absent(maxNode)) {
+            deleteMaxNode();
+        }
+        if (maxNode != null) {
+            return maxNode.getValue();
         }
         return null;
     }
@@ -68,9 +296,12 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
      * @return min value or null if tree is empty
      */
     public T min() {
-        Node<T> mostLeft = getMostLeft(root);
-        if (mostLeft != null) {
-            return mostLeft.getValue();
+        maintain();
+        while (minNode != null && absent(minNode)) {
+            deleteMinNode();
+        }
+        if (minNode != null) {
+            return minNode.getValue();
         }
         return null;
     }
@@ -86,10 +317,36 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
     /**
      * find node by value
      * @param value value of searched node
-     * @return node, which has selected value or null, if such node doesn't exist
+     * @return node, which has selected value or null, if such node doesn't exist, its value expired or was deleted
      */
     public Node<T> findByValue(T value) {
-        return findByValueHelper(value, root);
+        maintain();
+        Node<T> node = findByValueHelper(value, root);
+        if (node != null && absent(node)) {
+            return null;
+        }
+        return node;
+    }
+
+    /**
+     * estimate memory retained by tree, it is maintained by insert and delete, so it doesn't walk the tree
+     * @return estimated footprint of tree, its nodes, values and bookkeeping of expirations and tombstones
+     */
+    public MemoryFootprint memoryFootprint() {
+        // all nodes of tree are of the same class
+        Class<?> nodeType = root != null ? root.getClass() : Node.class;
+        MemoryFootprint footprint = MemoryLayout.shallow(getClass())
+                .plus(MemoryLayout.shallow(nodeType).times(size));
+        if (expirations != null) {
+            footprint = footprint
+                    .plus(dequeFootprint(expirations.size()))
+                    .plus(MemoryLayout.shallow(Expiration.class).times(expirations.size()));
+        }
+        if (tombstoneValues != null) {
+            footprint = footprint.plus(dequeFootprint(tombstoneValues.size()));
+        }
+        // expired values, which weren't removed yet, still retain memory
+        return footprint.withValues(size - tombstones, valueBytes);
     }
 
     /**
@@ -99,6 +356,82 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
         printInOrderHelper(root);
     }
 
+    /**
+     * create immutable array-backed snapshot of tree, later changes of tree don't affect snapshot
+     * @return frozen tree with same values
+     */
+    public FrozenBinarySearchTree<T> freeze() {
+        return new FrozenBinarySearchTree<>(inOrder());
+    }
+
+    /**
+     * create immutable snapshot of tree specialized for int keys
+     * @param toInt mapping of values to int keys, it has to preserve order of values and map them to distinct keys
+     * @return frozen tree with mapped keys
+     * @throws IllegalArgumentException if mapping doesn't preserve order or maps two values to the same key
+     */
+    public FrozenIntBinarySearchTree freezeToInt(ToIntFunction<? super T> toInt) {
+        List<T> values = inOrder();
+        int[] keys = new int[values.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = toInt.applyAsInt(values.get(i));
+            // unsorted keys would make search of frozen tree return wrong answers
+            if (i > 0 && keys[i] <= keys[i - 1]) {
+                throw new IllegalArgumentException("mapping doesn't preserve order: " + values.get(i - 1)
+                        + " -> " + keys[i - 1] + ", " + values.get(i) + " -> " + keys[i]);
+            }
+        }
+        return new FrozenIntBinarySearchTree(keys);
+    }
+
+    /**
+     * root getter
+     * @return root node or null if tree is empty
+     */
+    protected Node<T> getRoot() {
+        return root;
+    }
+
+    /**
+     * create node of inserted value, tree with time to live creates nodes with expiration time,
+     * subclasses create nodes with additional state
+     * @param value inserted value
+     * @param parent parent of node or null if node is root
+     * @return created node
+     */
+    protected Node<T> createNode(T value, Node<T> parent) {
+        if (expirations != null) {
+            return new ExpiringNode<>(value, parent);
+        }
+        return new Node<>(value, parent);
+    }
+
+    /**
+     * update state of node, which depends on its subtree, called bottom up for created node
+     * and each node on path of insert
+     * @param node node, which subtree could change
+     */
+    protected void updateNode(Node<T> node) {
+    }
+
+    /**
+     * called after node was removed from tree
+     * @param node removed node
+     * @param parent the lowest node, which subtree changed, or null if root was removed
+     */
+    protected void nodeRemoved(Node<T> node, Node<T> parent) {
+    }
+
+    /**
+     * collect values in order (ascending)
+     * @return sorted list of values
+     */
+    private List<T> inOrder() {
+        List<T> values = new ArrayList<>();
+        inOrderHelper(root, values);
+        return values;
+    }
+
     /**
      * recursive helper, which inserts value into node
      * @param value value to insert
@@ -108,20 +441,194 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
     private Node<T> insertHelper(T value, Node<T> node, Node<T> parent) {
         // stop recursion
         if (node == null) {
-            return new Node<>(value, parent);
-        }
+            size++;
+            valueBytes += MemoryLayout.sizeOf(value);
+            Node<T> created = createNode(value, parent);
+            scheduleExpiration(created);
+            updateNode(created);
+            return created;
+        }
+        int comparison = value.compareTo(node.getValue());
         // insert value into left subtree
-        if (value.compareTo(node.getValue()) < 0) {
+        if (comparison < 0) {
             node.setLeft(insertHelper(value, node.getLeft(), node));
         }
         // insert value into right subtree
-        if (value.compareTo(node.getValue()) > 0) {
+        else if (comparison > 0) {
             node.setRight(insertHelper(value, node.getRight(), node));
         }
-        // value == node.value
+        // value == node.value, deleted or expired value is inserted again -> renew it
+        else if (absent(node)) {
+            if (node.isDeleted()) {
+                node.setDeleted(false);
+                tombstones--;
+            }
+            scheduleExpiration(node);
+        }
+        updateNode(node);
         return node;
     }
 
+    /**
+     * delete value from tree, if value isn't there, do nothing
+     * @param value value to delete
+     */
+    private void deleteValue(T value) {
+        if (root == null) {
+            return;
+        }
+
+        // min and max nodes don't have both descendants, delete them directly
+        if (value.compareTo(minNode.getValue()) == 0) {
+            deleteMinNode();
+            return;
+        }
+        if (value.compareTo(maxNode.getValue()) == 0) {
+            deleteMaxNode();
+            return;
+        }
+        deleteHelper(value, root);
+    }
+
+    /**
+     * delete node with min value, its successor becomes min
+     */
+    private void deleteMinNode() {
+        Node<T> node = minNode;
+        Node<T> next = successor(node);
+
+        // min node doesn't have left descendant
+        if (node.getRight() == null) {
+            deleteLeaf(node);
+        } else {
+            deleteNodeWithRightDescendant(node);
+        }
+
+        minNode = next;
+        if (next == null) {
+            maxNode = null;  // tree is empty
+        }
+    }
+
+    /**
+     * delete node with max value, its predecessor becomes max
+     */
+    private void deleteMaxNode() {
+        Node<T> node = maxNode;
+        Node<T> previous = predecessor(node);
+
+        // max node doesn't have right descendant
+        if (node.getLeft() == null) {
+            deleteLeaf(node);
+        } else {
+            deleteNodeWithLeftDescendant(node);
+        }
+
+        maxNode = previous;
+        if (previous == null) {
+            minNode = null;  // tree is empty
+        }
+    }
+
+    /**
+     * set expiration time of node and schedule its removal, if values of tree expire
+     * @param node inserted node
+     */
+    private void scheduleExpiration(Node<T> node) {
+        if (expirations == null) {
+            return;
+        }
+
+        ExpiringNode<T> expiringNode = (ExpiringNode<T>) node;
+        expiringNode.setExpiresAt(clock.getAsLong() + timeToLive);
+        expirations.addLast(new Expiration<>(node.getValue(), expiringNode.getExpiresAt()));
+    }
+
+    /**
+     * remove few expired values and tombstones, so their cost is spread among operations
+     */
+    private void maintain() {
+        expire(EXPIRATIONS_PER_OPERATION);
+        compact();
+    }
+
+    /**
+     * remove few expired values, so expiration cost is spread among operations
+     * @param limit max number of removed values
+     */
+    private void expire(int limit) {
+        if (expirations == null) {
+            return;
+        }
+
+        long now = clock.getAsLong();
+        for (int i = 0; i < limit; i++) {
+            Expiration<T> expiration = expirations.peekFirst();
+            // values expire in order of insertion
+            if (expiration == null || expiration.expiresAt() - now > 0) {
+                return;
+            }
+            expirations.pollFirst();
+
+            // skip value, which was deleted or renewed after expiration was scheduled
+            Node<T> node = findByValueHelper(expiration.value(), root);
+            if (node != null && ((ExpiringNode<T>) node).getExpiresAt() == expiration.expiresAt()) {
+                deleteValue(node.getValue());
+            }
+        }
+    }
+
+    /**
+     * remove few tombstones, if ratio of tombstones exceeds compaction threshold
+     * or queue of tombstones is mostly made of values, which were inserted again or already removed
+     */
+    private void compact() {
+        if (tombstoneValues == null) {
+            return;
+        }
+
+        for (int i = 0; i < COMPACTIONS_PER_OPERATION && needsCompaction(); i++) {
+            T value = tombstoneValues.pollFirst();
+            if (value == null) {
+                return;
+            }
+
+            // skip value, which was inserted again or already removed
+            Node<T> node = findByValueHelper(value, root);
+            if (node != null && node.isDeleted()) {
+                deleteValue(value);
+            }
+        }
+    }
+
+    /**
+     * check if tombstones should be removed - their ratio exceeds compaction threshold or queue holds
+     * too many stale values (each of them was queued by delete, so draining them is amortized)
+     * @return true if compaction should continue, otherwise false
+     */
+    private boolean needsCompaction() {
+        return tombstones > compactionThreshold * size
+                || tombstoneValues.size() > 2 * tombstones + COMPACTIONS_PER_OPERATION;
+    }
+
+    /**
+     * check if value of node is absent from tree - it expired or node is tombstone
+     * @param node node to check
+     * @return true if value of node expired or was lazily deleted, otherwise false
+     */
+    private boolean absent(Node<T> node) {
+        return node.isDeleted() || expired(node);
+    }
+
+    /**
+     * check if value of node expired
+     * @param node node to check
+     * @return true if tree has time to live and value of node expired, otherwise false
+     */
+    private boolean expired(Node<T> node) {
+        return expirations != null && ((ExpiringNode<T>) node).getExpiresAt() - clock.getAsLong() <= 0;
+    }
+
     /**
      * recursive helper, which delete value from tree
      * @param value value to delete
@@ -171,6 +678,20 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
             T tmpValue = successor.getValue();
             successor.setValue(node.getValue());
             node.setValue(tmpValue);
+            if (expirations != null) {
+                ExpiringNode<T> expiringSuccessor = (ExpiringNode<T>) successor;
+                ExpiringNode<T> expiringNode = (ExpiringNode<T>) node;
+                long tmpExpiresAt = expiringSuccessor.getExpiresAt();
+                expiringSuccessor.setExpiresAt(expiringNode.getExpiresAt());
+                expiringNode.setExpiresAt(tmpExpiresAt);
+            }
+            boolean tmpDeleted = successor.isDeleted();
+            successor.setDeleted(node.isDeleted());
+            node.setDeleted(tmpDeleted);
+            // max value moved from successor to node
+            if (successor == maxNode) {
+                maxNode = node;
+            }
             deleteHelper(value, successor);
         }
     }
@@ -209,10 +730,39 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
         }
 
         printInOrderHelper(node.getLeft());  // print left subtree
-        System.out.print(node.getValue() + " ");  // print value
+        if (!absent(node)) {
+            System.out.print(node.getValue() + " ");  // print value
+        }
         printInOrderHelper(node.getRight());  // print right subtree
     }
 
+    /**
+     * recursive helper for collecting values in order (left subtree, value, right subtree)
+     * @param node node to collect
+     * @param values list, where values are appended
+     */
+    private void inOrderHelper(Node<T> node, List<T> values) {
+        // stop recursion
+        if (node == null) {
+            return;
+        }
+
+        inOrderHelper(node.getLeft(), values);  // collect left subtree
+        if (!absent(node)) {
+            values.add(node.getValue());  // collect value
+        }
+        inOrderHelper(node.getRight(), values);  // collect right subtree
+    }
+
+    /**
+     * estimate memory of ArrayDeque, it keeps at least one empty slot
+     * @param elements number of elements
+     * @return shallow footprint of deque and its array
+     */
+    private static MemoryFootprint dequeFootprint(int elements) {
+        return MemoryLayout.shallow(ArrayDeque.class).plus(MemoryLayout.array(Object.class, elements + 1L));
+    }
+
     /**
      * return successor of node or null of doesn't exist
      * @param node predecessor of successor
@@ -238,6 +788,31 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
         return parent;
     }
 
+    /**
+     * return predecessor of node or null of doesn't exist
+     * @param node successor of predecessor
+     * @return predecessor or null
+     */
+    private Node<T> predecessor(Node<T> node) {
+        if (node == null) {
+            return null;
+        }
+
+        // node has left descendant -> return most right descendant of left descendant
+        if (node.getLeft() != null) {
+            return getMostRight(node.getLeft());
+        }
+
+        //node hasn't left descendant, predecessor is first parent, which left isn't next
+        Node<T> parent = node.getParent();
+        Node<T> next = node;
+        while (parent != null && parent.getLeft() == next) {
+            next = parent;
+            parent = parent.getParent();
+        }
+        return parent;
+    }
+
     /**
      * return the most left descendant of node
      * @param node node of most left is returned
@@ -318,6 +893,12 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
         if (root == node) {
             root = null;
         }
+        size--;
+        valueBytes -= MemoryLayout.sizeOf(node.getValue());
+        if (node.isDeleted()) {
+            tombstones--;
+        }
+        nodeRemoved(node, parent);
     }
 
     /**
@@ -342,6 +923,12 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
             root = left;  // parent is null -> deleting root
             root.setParent(null);
         }
+        size--;
+        valueBytes -= MemoryLayout.sizeOf(node.getValue());
+        if (node.isDeleted()) {
+            tombstones--;
+        }
+        nodeRemoved(node, parent);
     }
 
     /**
@@ -366,6 +953,12 @@ public class BinarySearchTree<T extends Comparable<? super T>> {
             root = right;  // parent is null -> deleting root
             root.setParent(null);
         }
+        size--;
+        valueBytes -= MemoryLayout.sizeOf(node.getValue());
+        if (node.isDeleted()) {
+            tombstones--;
+        }
+        nodeRemoved(node, parent);
     }
 }
 
@@ -0,0 +1,11 @@
+package com.janbabak.binarySearchTree;
+
+/**
+ * which value is evicted from bounded tree, when its capacity is exceeded
+ */
+public enum Eviction {
+    /** evict min value, tree keeps the greatest values (top-K largest) */
+    MIN,
+    /** evict max value, tree keeps the least values (top-K smallest) */
+    MAX
+}
@@ -0,0 +1,38 @@
+package com.janbabak.binarySearchTree;
+
+/**
+ * node of binary tree with time to live, it keeps time, when its value expires
+ * @param <T> type of node value has to extend Comparable
+ */
+class ExpiringNode<T extends Comparable<? super T>> extends Node<T> {
+
+    /**
+     * time, when value expires
+     */
+    private long expiresAt;
+
+    /**
+     * constructor
+     * @param value value stored in node
+     * @param parent parent node
+     */
+    ExpiringNode(T value, Node<T> parent) {
+        super(value, parent);
+    }
+
+    /**
+     * expiration time getter
+     * @return time, when value expires
+     */
+    long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * expiration time setter
+     * @param expiresAt new expiration time
+     */
+    void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
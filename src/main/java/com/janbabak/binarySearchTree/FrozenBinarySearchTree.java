@@ -0,0 +1,183 @@
+package com.janbabak.binarySearchTree;
+
+import com.janbabak.memory.MemoryFootprint;
+import com.janbabak.memory.MemoryLayout;
+
+import java.util.List;
+
+/**
+ * immutable binary search tree stored in array in Eytzinger (BFS) layout - node k has descendants 2k and 2k + 1,
+ * so the top levels of the tree share few cache lines and search doesn't chase pointers
+ * @param <T> type of value, it has to extend Comparable
+ */
+public class FrozenBinarySearchTree<T extends Comparable<? super T>> {
+
+    /**
+     * values in Eytzinger layout, index 0 is unused, root is at index 1
+     */
+    private final Object[] values;
+
+    /**
+     * number of values
+     */
+    private final int size;
+
+    /**
+     * estimated bytes of values
+     */
+    private final long valueBytes;
+
+    /**
+     * constructor - create frozen tree from sorted values
+     * @param sorted values sorted in ascending order without duplicates
+     */
+    FrozenBinarySearchTree(List<T> sorted) {
+        size = sorted.size();
+        values = new Object[size + 1];
+        fillHelper(sorted, 0, 1);
+
+        long bytes = 0;
+        for (T value : sorted) {
+            bytes += MemoryLayout.sizeOf(value);
+        }
+        valueBytes = bytes;
+    }
+
+    /**
+     * check if tree contains value
+     * @param value needle
+     * @return true, if tree contains value, otherwise false
+     */
+    public boolean contain(T value) {
+        int index = lowerBound(value);
+        return index != 0 && value.compareTo(get(index)) == 0;
+    }
+
+    /**
+     * return the greatest value less than or equal to given value
+     * @param value needle
+     * @return floor value or null if such value doesn't exist
+     */
+    public T floor(T value) {
+        int index = 1;
+        // go right if values[index] <= value, without branching on the result
+        while (index <= size) {
+            index = 2 * index + (value.compareTo(get(index)) >= 0 ? 1 : 0);
+        }
+        // answer is the last node, where search went right -> strip trailing left turns and last right turn
+        index >>>= Integer.numberOfTrailingZeros(index) + 1;
+        return index == 0 ? null : get(index);
+    }
+
+    /**
+     * return the least value greater than or equal to given value
+     * @param value needle
+     * @return ceiling value or null if such value doesn't exist
+     */
+    public T ceiling(T value) {
+        int index = lowerBound(value);
+        return index == 0 ? null : get(index);
+    }
+
+    /**
+     * check if tree is empty
+     * @return true if tree is empty, otherwise false
+     */
+    public boolean empty() {
+        return size == 0;
+    }
+
+    /**
+     * return number of values
+     * @return number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * estimate memory retained by tree
+     * @return estimated footprint of tree, its array and values
+     */
+    public MemoryFootprint memoryFootprint() {
+        return MemoryLayout.shallow(FrozenBinarySearchTree.class)
+                .plus(MemoryLayout.array(Object.class, size + 1L))
+                .withValues(size, valueBytes);
+    }
+
+    /**
+     * return max value from tree
+     * @return max value or null if tree is empty
+     */
+    public T max() {
+        if (size == 0) {
+            return null;
+        }
+        // the most right node
+        int index = 1;
+        while (2 * index + 1 <= size) {
+            index = 2 * index + 1;
+        }
+        return get(index);
+    }
+
+    /**
+     * return min value from tree
+     * @return min value or null if tree is empty
+     */
+    public T min() {
+        if (size == 0) {
+            return null;
+        }
+        // the most left node
+        int index = 1;
+        while (2 * index <= size) {
+            index = 2 * index;
+        }
+        return get(index);
+    }
+
+    /**
+     * find index of the least value greater than or equal to given value
+     * @param value needle
+     * @return index of value or 0 if such value doesn't exist
+     */
+    private int lowerBound(T value) {
+        int index = 1;
+        // go right if values[index] < value, without branching on the result
+        while (index <= size) {
+            index = 2 * index + (value.compareTo(get(index)) > 0 ? 1 : 0);
+        }
+        // answer is the last node, where search went left -> strip trailing right turns and last left turn
+        index >>>= Integer.numberOfTrailingZeros(~index) + 1;
+        return index;
+    }
+
+    /**
+     * return value at index
+     * @param index index in Eytzinger layout
+     * @return value
+     */
+    @SuppressWarnings("unchecked")
+    private T get(int index) {
+        return (T) values[index];
+    }
+
+    /**
+     * recursive helper, which fills subtree in Eytzinger layout by in order traversal
+     * @param sorted sorted values
+     * @param next index of next sorted value to place
+     * @param index index of subtree root
+     * @return index of next sorted value to place after subtree is filled
+     */
+    private int fillHelper(List<T> sorted, int next, int index) {
+        // stop recursion
+        if (index > size) {
+            return next;
+        }
+
+        next = fillHelper(sorted, next, 2 * index);  // fill left subtree
+        values[index] = sorted.get(next++);  // fill node
+        return fillHelper(sorted, next, 2 * index + 1);  // fill right subtree
+    }
+}
@@ -0,0 +1,164 @@
+package com.janbabak.binarySearchTree;
+
+import com.janbabak.memory.MemoryFootprint;
+import com.janbabak.memory.MemoryLayout;
+
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+
+/**
+ * immutable binary search tree of int keys stored in Eytzinger (BFS) layout - node k has descendants 2k and 2k + 1,
+ * keys are stored in primitive array, so search doesn't chase pointers nor unbox values
+ */
+public class FrozenIntBinarySearchTree {
+
+    /**
+     * keys in Eytzinger layout, index 0 is unused, root is at index 1
+     */
+    private final int[] keys;
+
+    /**
+     * number of keys
+     */
+    private final int size;
+
+    /**
+     * constructor - create frozen tree from sorted keys
+     * @param sorted keys sorted in ascending order without duplicates
+     */
+    FrozenIntBinarySearchTree(int[] sorted) {
+        size = sorted.length;
+        keys = new int[size + 1];
+        fillHelper(sorted, 0, 1);
+    }
+
+    /**
+     * check if tree contains key
+     * @param key needle
+     * @return true, if tree contains key, otherwise false
+     */
+    public boolean contain(int key) {
+        int index = lowerBound(key);
+        return index != 0 && keys[index] == key;
+    }
+
+    /**
+     * return the greatest key less than or equal to given key
+     * @param key needle
+     * @return floor key or empty optional if such key doesn't exist
+     */
+    public OptionalInt floor(int key) {
+        int index = 1;
+        // go right if keys[index] <= key, without branching on the result
+        while (index <= size) {
+            index = 2 * index + (keys[index] <= key ? 1 : 0);
+        }
+        // answer is the last node, where search went right -> strip trailing left turns and last right turn
+        index >>>= Integer.numberOfTrailingZeros(index) + 1;
+        return index == 0 ? OptionalInt.empty() : OptionalInt.of(keys[index]);
+    }
+
+    /**
+     * return the least key greater than or equal to given key
+     * @param key needle
+     * @return ceiling key or empty optional if such key doesn't exist
+     */
+    public OptionalInt ceiling(int key) {
+        int index = lowerBound(key);
+        return index == 0 ? OptionalInt.empty() : OptionalInt.of(keys[index]);
+    }
+
+    /**
+     * check if tree is empty
+     * @return true if tree is empty, otherwise false
+     */
+    public boolean empty() {
+        return size == 0;
+    }
+
+    /**
+     * return number of keys
+     * @return number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * estimate memory retained by tree
+     * @return estimated footprint of tree and its array
+     */
+    public MemoryFootprint memoryFootprint() {
+        return MemoryLayout.shallow(FrozenIntBinarySearchTree.class)
+                .plus(MemoryLayout.array(int.class, size + 1L))
+                .withValues(size, 0);
+    }
+
+    /**
+     * return max key from tree
+     * @return max key
+     * @throws NoSuchElementException if tree is empty, check it by empty()
+     */
+    public int max() {
+        if (size == 0) {
+            throw new NoSuchElementException("tree is empty");
+        }
+        // the most right node
+        int index = 1;
+        while (2 * index + 1 <= size) {
+            index = 2 * index + 1;
+        }
+        return keys[index];
+    }
+
+    /**
+     * return min key from tree
+     * @return min key
+     * @throws NoSuchElementException if tree is empty, check it by empty()
+     */
+    public int min() {
+        if (size == 0) {
+            throw new NoSuchElementException("tree is empty");
+        }
+        // the most left node
+        int index = 1;
+        while (2 * index <= size) {
+            index = 2 * index;
+        }
+        return keys[index];
+    }
+
+    /**
+     * find index of the least key greater than or equal to given key
+     * @param key needle
+     * @return index of key or 0 if such key doesn't exist
+     */
+    private int lowerBound(int key) {
+        int index = 1;
+        // go right if keys[index] < key, without branching on the result
+        while (index <= size) {
+            index = 2 * index + (keys[index] < key ? 1 : 0);
+        }
+        // answer is the last node, where search went left -> strip trailing right turns and last left turn
+        index >>>= Integer.numberOfTrailingZeros(~index) + 1;
+        return index;
+    }
+
+    /**
+     * recursive helper, which fills subtree in Eytzinger layout by in order traversal
+     * @param sorted sorted keys
+     * @param next index of next sorted key to place
+     * @param index index of subtree root
+     * @return index of next sorted key to place after subtree is filled
+     */
+    private int fillHelper(int[] sorted, int next, int index) {
+        // stop recursion
+        if (index > size) {
+            return next;
+        }
+
+        next = fillHelper(sorted, next, 2 * index);  // fill left subtree
+        keys[index] = sorted[next++];  // fill node
+        return fillHelper(sorted, next, 2 * index + 1);  // fill right subtree
+    }
+}
@@ -0,0 +1,61 @@
+package com.janbabak.binarySearchTree;
+
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * associative summary of values (e.g. sum, count, min), which nodes of tree cache for their subtrees
+ * @param <T> type of summarized value
+ * @param <A> type of summary
+ */
+public interface Monoid<T, A> {
+
+    /**
+     * summary of no values, combine(identity(), a) and combine(a, identity()) must be a
+     * @return identity summary
+     */
+    A identity();
+
+    /**
+     * summary of single value
+     * @param value value to summarize
+     * @return summary
+     */
+    A lift(T value);
+
+    /**
+     * combine summaries of two adjacent ranges, it has to be associative, but needn't be commutative
+     * @param left summary of lesser values
+     * @param right summary of greater values
+     * @return summary of both ranges
+     */
+    A combine(A left, A right);
+
+    /**
+     * create monoid from functions
+     * @param identity summary of no values
+     * @param lift summary of single value
+     * @param combine combination of summaries of adjacent ranges
+     * @param <T> type of summarized value
+     * @param <A> type of summary
+     * @return monoid
+     */
+    static <T, A> Monoid<T, A> of(A identity, Function<? super T, ? extends A> lift, BinaryOperator<A> combine) {
+        return new Monoid<>() {
+            @Override
+            public A identity() {
+                return identity;
+            }
+
+            @Override
+            public A lift(T value) {
+                return lift.apply(value);
+            }
+
+            @Override
+            public A combine(A left, A right) {
+                return combine.apply(left, right);
+            }
+        };
+    }
+}
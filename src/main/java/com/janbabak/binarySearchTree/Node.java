@@ -26,6 +26,11 @@ public class Node<T extends Comparable<? super T>> {
      */
     private Node<T> parent;
 
+    /**
+     * true if value was lazily deleted (node is tombstone)
+     */
+    private boolean deleted;
+
     /**
      * constructor
      * @param value value stored in node
@@ -100,4 +105,20 @@ public class Node<T extends Comparable<? super T>> {
     public void setParent(Node<T> parent) {
         this.parent = parent;
     }
+
+    /**
+     * deleted getter
+     * @return true if value was lazily deleted
+     */
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    /**
+     * deleted setter
+     * @param deleted new deleted flag
+     */
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
 }
@@ -0,0 +1,179 @@
+package com.janbabak.memory;
+
+/**
+ * estimated memory retained by data structure and its breakdown
+ */
+public class MemoryFootprint {
+
+    /**
+     * number of stored values
+     */
+    private final long entries;
+
+    /**
+     * bytes of object headers (including array lengths)
+     */
+    private final long headerBytes;
+
+    /**
+     * bytes of references
+     */
+    private final long referenceBytes;
+
+    /**
+     * bytes of primitive fields and elements
+     */
+    private final long primitiveBytes;
+
+    /**
+     * bytes of alignment padding
+     */
+    private final long paddingBytes;
+
+    /**
+     * bytes of stored values (e.g. boxed numbers, strings) and cached summaries
+     */
+    private final long valueBytes;
+
+    /**
+     * constructor
+     * @param entries number of stored values
+     * @param headerBytes bytes of object headers
+     * @param referenceBytes bytes of references
+     * @param primitiveBytes bytes of primitive fields and elements
+     * @param paddingBytes bytes of alignment padding
+     * @param valueBytes bytes of stored values
+     */
+    MemoryFootprint(long entries, long headerBytes, long referenceBytes, long primitiveBytes, long paddingBytes,
+                    long valueBytes) {
+        this.entries = entries;
+        this.headerBytes = headerBytes;
+        this.referenceBytes = referenceBytes;
+        this.primitiveBytes = primitiveBytes;
+        this.paddingBytes = paddingBytes;
+        this.valueBytes = valueBytes;
+    }
+
+    /**
+     * entries getter
+     * @return number of stored values
+     */
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * header bytes getter
+     * @return bytes of object headers
+     */
+    public long getHeaderBytes() {
+        return headerBytes;
+    }
+
+    /**
+     * reference bytes getter
+     * @return bytes of references
+     */
+    public long getReferenceBytes() {
+        return referenceBytes;
+    }
+
+    /**
+     * primitive bytes getter
+     * @return bytes of primitive fields and elements
+     */
+    public long getPrimitiveBytes() {
+        return primitiveBytes;
+    }
+
+    /**
+     * padding bytes getter
+     * @return bytes of alignment padding
+     */
+    public long getPaddingBytes() {
+        return paddingBytes;
+    }
+
+    /**
+     * value bytes getter
+     * @return bytes of stored values and cached summaries
+     */
+    public long getValueBytes() {
+        return valueBytes;
+    }
+
+    /**
+     * bytes of the structure itself, without stored values
+     * @return bytes of headers, references, primitives and padding
+     */
+    public long getOverheadBytes() {
+        return headerBytes + referenceBytes + primitiveBytes + paddingBytes;
+    }
+
+    /**
+     * estimated retained bytes
+     * @return bytes of structure and stored values
+     */
+    public long getTotalBytes() {
+        return getOverheadBytes() + valueBytes;
+    }
+
+    /**
+     * estimated retained bytes per stored value
+     * @return total bytes divided by number of entries or 0 if there are no entries
+     */
+    public double getBytesPerEntry() {
+        if (entries == 0) {
+            return 0;
+        }
+        return (double) getTotalBytes() / entries;
+    }
+
+    /**
+     * sum of two footprints
+     * @param other footprint to add
+     * @return footprint of both
+     */
+    public MemoryFootprint plus(MemoryFootprint other) {
+        return new MemoryFootprint(
+                entries + other.entries,
+                headerBytes + other.headerBytes,
+                referenceBytes + other.referenceBytes,
+                primitiveBytes + other.primitiveBytes,
+                paddingBytes + other.paddingBytes,
+                valueBytes + other.valueBytes);
+    }
+
+    /**
+     * footprint of count same objects
+     * @param count number of objects
+     * @return multiplied footprint
+     */
+    public MemoryFootprint times(long count) {
+        return new MemoryFootprint(
+                entries * count,
+                headerBytes * count,
+                referenceBytes * count,
+                primitiveBytes * count,
+                paddingBytes * count,
+                valueBytes * count);
+    }
+
+    /**
+     * same footprint with different number of entries and value bytes
+     * @param entries number of stored values
+     * @param valueBytes bytes of stored values
+     * @return new footprint
+     */
+    public MemoryFootprint withValues(long entries, long valueBytes) {
+        return new MemoryFootprint(entries, headerBytes, referenceBytes, primitiveBytes, paddingBytes, valueBytes);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d bytes (%.1f bytes/entry, %d entries): headers=%d references=%d primitives=%d "
+                        + "padding=%d values=%d",
+                getTotalBytes(), getBytesPerEntry(), entries, headerBytes, referenceBytes, primitiveBytes,
+                paddingBytes, valueBytes);
+    }
+}
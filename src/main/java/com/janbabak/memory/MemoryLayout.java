@@ -0,0 +1,174 @@
+package com.janbabak.memory;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * estimates of object sizes on HotSpot JVM, objects are laid out as header, fields and padding to 8 bytes
+ */
+public final class MemoryLayout {
+
+    /**
+     * size of reference, 4 bytes with compressed oops
+     */
+    public static final int REFERENCE_SIZE;
+
+    /**
+     * size of object header, 12 bytes with compressed class pointers
+     */
+    public static final int HEADER_SIZE;
+
+    /**
+     * size of array length field
+     */
+    private static final int ARRAY_LENGTH_SIZE = 4;
+
+    /**
+     * objects are aligned to 8 bytes
+     */
+    private static final int ALIGNMENT = 8;
+
+    /**
+     * cached shallow footprints of classes
+     */
+    private static final ClassValue<MemoryFootprint> SHALLOW_FOOTPRINTS = new ClassValue<>() {
+        @Override
+        protected MemoryFootprint computeValue(Class<?> type) {
+            return computeShallow(type);
+        }
+    };
+
+    static {
+        REFERENCE_SIZE = vmOption("UseCompressedOops") ? 4 : 8;
+        HEADER_SIZE = vmOption("UseCompressedClassPointers") ? 12 : 16;
+    }
+
+    private MemoryLayout() {
+    }
+
+    /**
+     * footprint of object without objects it references
+     * @param type class of object
+     * @return shallow footprint
+     */
+    public static MemoryFootprint shallow(Class<?> type) {
+        return SHALLOW_FOOTPRINTS.get(type);
+    }
+
+    /**
+     * footprint of array without objects it references
+     * @param componentType type of array elements
+     * @param length length of array
+     * @return shallow footprint
+     */
+    public static MemoryFootprint array(Class<?> componentType, long length) {
+        long header = HEADER_SIZE + ARRAY_LENGTH_SIZE;
+        long elements = length * fieldSize(componentType);
+        long padding = align(header + elements) - header - elements;
+        if (componentType.isPrimitive()) {
+            return new MemoryFootprint(0, header, 0, elements, padding, 0);
+        }
+        return new MemoryFootprint(0, header, elements, 0, padding, 0);
+    }
+
+    /**
+     * estimate bytes retained by value, strings and arrays are counted with their content,
+     * other objects only shallowly (e.g. boxed numbers)
+     * @param value value
+     * @return estimated bytes or 0 if value is null
+     */
+    public static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String string) {
+            // compact strings store Latin-1 characters in one byte
+            int bytesPerChar = 1;
+            for (int i = 0; i < string.length(); i++) {
+                if (string.charAt(i) > 0xFF) {
+                    bytesPerChar = 2;
+                    break;
+                }
+            }
+            return shallow(String.class).getTotalBytes()
+                    + array(byte.class, (long) bytesPerChar * string.length()).getTotalBytes();
+        }
+        if (value.getClass().isArray()) {
+            return array(value.getClass().getComponentType(), Array.getLength(value))
+                    .getTotalBytes();
+        }
+        return shallow(value.getClass()).getTotalBytes();
+    }
+
+    /**
+     * compute shallow footprint of class from its instance fields
+     * @param type class of object
+     * @return shallow footprint
+     */
+    private static MemoryFootprint computeShallow(Class<?> type) {
+        long references = 0;
+        long primitives = 0;
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                if (field.getType().isPrimitive()) {
+                    primitives += fieldSize(field.getType());
+                } else {
+                    references += REFERENCE_SIZE;
+                }
+            }
+        }
+        long padding = align(HEADER_SIZE + references + primitives) - HEADER_SIZE - references - primitives;
+        return new MemoryFootprint(0, HEADER_SIZE, references, primitives, padding, 0);
+    }
+
+    /**
+     * size of field or array element of type
+     * @param type type of field
+     * @return size in bytes
+     */
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE_SIZE;
+    }
+
+    /**
+     * round size up to alignment
+     * @param size size in bytes
+     * @return aligned size
+     */
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * read boolean option of running JVM
+     * @param name name of option
+     * @return value of option, true if it can't be read (default of 64-bit JVM with heap under 32 GB)
+     */
+    private static boolean vmOption(String name) {
+        try {
+            HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return Boolean.parseBoolean(bean.getVMOption(name).getValue());
+        } catch (RuntimeException | LinkageError e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.janbabak.radixTree;
+
+import java.util.Arrays;
+
+/**
+ * node of radix tree, children are kept in arrays sorted by first character of their label, arrays grow
+ * by need (like adaptive radix tree), so nodes with few children stay small
+ */
+public class Node {
+
+    /**
+     * initial capacity of children arrays
+     */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * children keys of nodes without children, shared, so leaves don't allocate arrays
+     */
+    private static final char[] EMPTY_KEYS = new char[0];
+
+    /**
+     * children of nodes without children, shared, so leaves don't allocate arrays
+     */
+    private static final Node[] EMPTY_CHILDREN = new Node[0];
+
+    /**
+     * label of edge leading to this node (part of key shared by whole subtree)
+     */
+    private String label;
+
+    /**
+     * true if key ending in this node is stored in tree
+     */
+    private boolean terminal;
+
+    /**
+     * first characters of children labels, sorted
+     */
+    private char[] keys;
+
+    /**
+     * children, in the same order as keys
+     */
+    private Node[] children;
+
+    /**
+     * number of children
+     */
+    private int childCount;
+
+    /**
+     * constructor
+     * @param label label of edge leading to this node
+     * @param terminal true if key ending in this node is stored in tree
+     */
+    public Node(String label, boolean terminal) {
+        this.label = label;
+        this.terminal = terminal;
+        this.keys = EMPTY_KEYS;
+        this.children = EMPTY_CHILDREN;
+        this.childCount = 0;
+    }
+
+    /**
+     * label getter
+     * @return label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * label setter
+     * @param label new label
+     */
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    /**
+     * terminal getter
+     * @return true if key ending in this node is stored in tree
+     */
+    public boolean isTerminal() {
+        return terminal;
+    }
+
+    /**
+     * terminal setter
+     * @param terminal new terminal flag
+     */
+    public void setTerminal(boolean terminal) {
+        this.terminal = terminal;
+    }
+
+    /**
+     * number of children getter
+     * @return number of children
+     */
+    public int getChildCount() {
+        return childCount;
+    }
+
+    /**
+     * capacity getter
+     * @return length of children arrays, they don't shrink when children are removed
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * child getter
+     * @param index index of child in order of labels
+     * @return child
+     */
+    public Node getChild(int index) {
+        return children[index];
+    }
+
+    /**
+     * find child, which label starts with character
+     * @param key first character of label
+     * @return child or null, if such child doesn't exist
+     */
+    public Node findChild(char key) {
+        int index = Arrays.binarySearch(keys, 0, childCount, key);
+        return index >= 0 ? children[index] : null;
+    }
+
+    /**
+     * add child or replace child, which label starts with the same character
+     * @param child new child, label must not be empty
+     */
+    public void putChild(Node child) {
+        char key = child.getLabel().charAt(0);
+        int index = Arrays.binarySearch(keys, 0, childCount, key);
+        if (index >= 0) {
+            children[index] = child;
+            return;
+        }
+
+        // grow arrays
+        if (childCount == keys.length) {
+            int capacity = keys.length == 0 ? INITIAL_CAPACITY : 2 * keys.length;
+            keys = Arrays.copyOf(keys, capacity);
+            children = Arrays.copyOf(children, capacity);
+        }
+
+        // shift greater keys to keep arrays sorted
+        index = -index - 1;
+        System.arraycopy(keys, index, keys, index + 1, childCount - index);
+        System.arraycopy(children, index, children, index + 1, childCount - index);
+        keys[index] = key;
+        children[index] = child;
+        childCount++;
+    }
+
+    /**
+     * remove child, which label starts with character, if such child doesn't exist, do nothing
+     * @param key first character of label
+     */
+    public void removeChild(char key) {
+        int index = Arrays.binarySearch(keys, 0, childCount, key);
+        if (index < 0) {
+            return;
+        }
+
+        System.arraycopy(keys, index + 1, keys, index, childCount - index - 1);
+        System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+        childCount--;
+        children[childCount] = null;
+    }
+}
@@ -0,0 +1,337 @@
+package com.janbabak.radixTree;
+
+import com.janbabak.memory.MemoryFootprint;
+import com.janbabak.memory.MemoryLayout;
+
+/**
+ * ordered set of strings stored in compressed radix tree - common prefixes of keys are stored only once,
+ * so lookup cost is proportional to length of key instead of log(n) full string comparisons,
+ * values are ordered in the same way as by String.compareTo
+ */
+public class RadixTree {
+
+    /**
+     * root node of the tree, its label is always empty
+     */
+    private final Node root;
+
+    /**
+     * number of values
+     */
+    private int size;
+
+    /**
+     * number of nodes including root
+     */
+    private int nodes;
+
+    /**
+     * estimated bytes of labels
+     */
+    private long labelBytes;
+
+    /**
+     * number of nodes by log2 of capacity of their children arrays, capacity is power of two and there are
+     * at most 2^16 children (one for each char), nodes without children share empty arrays
+     */
+    private final int[] arraysByCapacity;
+
+    /**
+     * constructor - create empty radix tree
+     */
+    public RadixTree() {
+        root = new Node("", false);
+        size = 0;
+        nodes = 1;
+        labelBytes = 0;  // empty label of root is shared literal
+        arraysByCapacity = new int[Character.SIZE + 1];
+    }
+
+    /**
+     * insert value, if vale already is there, do nothing
+     * @param value value to insert
+     */
+    public void insert(String value) {
+        insertHelper(value, 0, root);
+    }
+
+    /**
+     * delete value from tree, if value isn't there, do nothing
+     * @param value value to delete
+     */
+    public void delete(String value) {
+        deleteHelper(value, 0, root);
+    }
+
+    /**
+     * check if tree contains value
+     * @param value needle
+     * @return true, if tree contains value, otherwise false
+     */
+    public boolean contain(String value) {
+        Node node = root;
+        int position = 0;
+        while (position < value.length()) {
+            node = node.findChild(value.charAt(position));
+            // no child or label doesn't match the rest of value
+            if (node == null || !value.startsWith(node.getLabel(), position)) {
+                return false;
+            }
+            position += node.getLabel().length();
+        }
+        return node.isTerminal();
+    }
+
+    /**
+     * check if tree is empty
+     * @return true if tree is empty, otherwise false
+     */
+    public boolean empty() {
+        return !root.isTerminal() && root.getChildCount() == 0;
+    }
+
+    /**
+     * return number of values
+     * @return number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * estimate memory retained by tree, it is maintained by insert and delete, so it doesn't walk the tree
+     * @return estimated footprint of tree, its nodes, children arrays and labels
+     */
+    public MemoryFootprint memoryFootprint() {
+        MemoryFootprint footprint = MemoryLayout.shallow(RadixTree.class)
+                .plus(MemoryLayout.array(int.class, arraysByCapacity.length))
+                .plus(MemoryLayout.shallow(Node.class).times(nodes));
+        for (int exponent = 0; exponent < arraysByCapacity.length; exponent++) {
+            int capacity = 1 << exponent;
+            footprint = footprint.plus(MemoryLayout.array(char.class, capacity)
+                    .plus(MemoryLayout.array(Node.class, capacity))
+                    .times(arraysByCapacity[exponent]));
+        }
+        return footprint.withValues(size, labelBytes);
+    }
+
+    /**
+     * return max value from tree
+     * @return max value or null if tree is empty
+     */
+    public String max() {
+        if (empty()) {
+            return null;
+        }
+
+        // the most right path, leaves are always terminal
+        StringBuilder builder = new StringBuilder();
+        Node node = root;
+        while (node.getChildCount() > 0) {
+            node = node.getChild(node.getChildCount() - 1);
+            builder.append(node.getLabel());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * return min value from tree
+     * @return min value or null if tree is empty
+     */
+    public String min() {
+        if (empty()) {
+            return null;
+        }
+
+        // the most left path, prefix is less than all its extensions, so stop at first terminal node
+        StringBuilder builder = new StringBuilder();
+        Node node = root;
+        while (!node.isTerminal()) {
+            node = node.getChild(0);
+            builder.append(node.getLabel());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * print tree in order (ascending)
+     */
+    public void printInOrder() {
+        printInOrderHelper(root, new StringBuilder());
+    }
+
+    /**
+     * root getter
+     * @return root node, its label is empty
+     */
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * recursive helper, which inserts value into subtree
+     * @param value value to insert
+     * @param position number of characters of value matched by path to node
+     * @param node node, where to insert value
+     */
+    private void insertHelper(String value, int position, Node node) {
+        // stop recursion - whole value is matched
+        if (position == value.length()) {
+            if (!node.isTerminal()) {
+                node.setTerminal(true);
+                size++;
+            }
+            return;
+        }
+
+        Node child = node.findChild(value.charAt(position));
+        // no child shares prefix with rest of value -> create leaf
+        if (child == null) {
+            Node leaf = new Node(value.substring(position), true);
+            countNode(leaf, 1);
+            putChild(node, leaf);
+            size++;
+            return;
+        }
+
+        String label = child.getLabel();
+        int common = commonPrefixLength(label, value, position);
+        // whole label matches -> insert into child
+        if (common == label.length()) {
+            insertHelper(value, position + common, child);
+            return;
+        }
+
+        // label matches only partially -> split edge
+        Node split = new Node(label.substring(0, common), false);
+        countNode(split, 1);
+        setLabel(child, label.substring(common));
+        putChild(split, child);
+        putChild(node, split);
+        insertHelper(value, position + common, split);
+    }
+
+    /**
+     * recursive helper, which deletes value from subtree and compresses nodes, which became redundant
+     * @param value value to delete
+     * @param position number of characters of value matched by path to node
+     * @param node node, from which to delete
+     */
+    private void deleteHelper(String value, int position, Node node) {
+        // stop recursion - whole value is matched
+        if (position == value.length()) {
+            if (node.isTerminal()) {
+                node.setTerminal(false);
+                size--;
+            }
+            return;
+        }
+
+        Node child = node.findChild(value.charAt(position));
+        // tree doesn't contain value
+        if (child == null || !value.startsWith(child.getLabel(), position)) {
+            return;
+        }
+
+        deleteHelper(value, position + child.getLabel().length(), child);
+
+        if (child.isTerminal()) {
+            return;
+        }
+        // child doesn't store any value -> remove it
+        if (child.getChildCount() == 0) {
+            node.removeChild(child.getLabel().charAt(0));
+            countNode(child, -1);
+            return;
+        }
+        // child has only one descendant -> merge them
+        if (child.getChildCount() == 1) {
+            Node grandchild = child.getChild(0);
+            setLabel(grandchild, child.getLabel() + grandchild.getLabel());
+            putChild(node, grandchild);
+            countNode(child, -1);
+        }
+    }
+
+    /**
+     * add or replace child of node and count growth of its children arrays
+     * @param node parent node
+     * @param child new child
+     */
+    private void putChild(Node node, Node child) {
+        int capacity = node.getCapacity();
+        node.putChild(child);
+        if (node.getCapacity() != capacity) {
+            countArrays(capacity, -1);
+            countArrays(node.getCapacity(), 1);
+        }
+    }
+
+    /**
+     * change label of node and count its bytes
+     * @param node node to change
+     * @param label new label
+     */
+    private void setLabel(Node node, String label) {
+        labelBytes += MemoryLayout.sizeOf(label) - MemoryLayout.sizeOf(node.getLabel());
+        node.setLabel(label);
+    }
+
+    /**
+     * count node with its label and children arrays, which was added to or removed from tree
+     * @param node added or removed node
+     * @param count 1 if node was added, -1 if it was removed
+     */
+    private void countNode(Node node, int count) {
+        nodes += count;
+        labelBytes += count * MemoryLayout.sizeOf(node.getLabel());
+        countArrays(node.getCapacity(), count);
+    }
+
+    /**
+     * count children arrays of capacity
+     * @param capacity capacity of arrays, 0 if node shares empty arrays
+     * @param count number of added (positive) or removed (negative) arrays
+     */
+    private void countArrays(int capacity, int count) {
+        if (capacity > 0) {
+            arraysByCapacity[Integer.numberOfTrailingZeros(capacity)] += count;
+        }
+    }
+
+    /**
+     * recursive helper for printing tree in order (value of node, children in order of labels)
+     * @param node node to print
+     * @param prefix key of node
+     */
+    private void printInOrderHelper(Node node, StringBuilder prefix) {
+        int length = prefix.length();
+        prefix.append(node.getLabel());
+
+        // prefix is less than all its extensions
+        if (node.isTerminal()) {
+            System.out.print(prefix + " ");  // print value
+        }
+        for (int i = 0; i < node.getChildCount(); i++) {
+            printInOrderHelper(node.getChild(i), prefix);  // print subtrees
+        }
+
+        prefix.setLength(length);
+    }
+
+    /**
+     * count length of common prefix of label and value starting at position
+     * @param label label of edge
+     * @param value value
+     * @param position first character of value to compare
+     * @return number of equal characters
+     */
+    private static int commonPrefixLength(String label, String value, int position) {
+        int max = Math.min(label.length(), value.length() - position);
+        int length = 0;
+        while (length < max && label.charAt(length) == value.charAt(position + length)) {
+            length++;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,482 @@
+package com.janbabak.binarySearchTree;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * workload-driven performance regression suite - asserts complexity bounds instead of wall-clock times,
+ * so the results don't depend on machine, run it by: ./gradlew perfTest
+ */
+@Tag("performance")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BinarySearchTreePerformanceTest {
+
+    /**
+     * largest scale of workloads, can be lowered by -Pperf.maxScale=...
+     */
+    private static final int MAX_SCALE = Integer.getInteger("perf.maxScale", 10_000_000);
+
+    /**
+     * degenerate workloads make quadratic number of comparisons, so they are measured only up to this scale
+     */
+    private static final int MAX_DEGENERATE_SCALE = 10_000;
+
+    /**
+     * stack size of thread running the workload, recursion of degenerated tree is as deep as number of nodes
+     */
+    private static final long STACK_SIZE = 256L * 1024 * 1024;
+
+    /**
+     * seed of random generator, so failures are reproducible
+     */
+    private static final long SEED = 42;
+
+    /**
+     * exponent of Zipf distribution
+     */
+    private static final double ZIPF_EXPONENT = 1.0;
+
+    /**
+     * max allowed ratio of height to log2(number of nodes) for random-like workloads
+     * (expected height of random binary search tree is about 3 * log2(n))
+     */
+    private static final double HEIGHT_FACTOR = 4.0;
+
+    /**
+     * max allowed ratio of comparisons per operation to log2(number of nodes) for random-like workloads
+     * (expected depth of node is about 1.39 * log2(n) and each visited node costs 2 comparisons)
+     */
+    private static final double COMPARISONS_FACTOR = 4.0;
+
+    /**
+     * max allowed relative difference of comparisons per operation from expected value for degenerate workloads
+     */
+    private static final double LINEAR_TOLERANCE = 0.1;
+
+    /**
+     * max allowed ratio of comparisons per operation growth to log2(number of nodes) growth
+     */
+    private static final double GROWTH_FACTOR = 2.0;
+
+    /**
+     * min number of untimed lookup passes, which let JIT compile lookups before they are timed
+     */
+    private static final int WARMUP_RUNS = 3;
+
+    /**
+     * min number of untimed lookups, small scales repeat warm-up pass until they reach it
+     */
+    private static final int WARMUP_LOOKUPS = 1_000_000;
+
+    /**
+     * number of timed lookup passes, median of them is reported
+     */
+    private static final int TIMED_RUNS = 5;
+
+    /**
+     * max number of lookups in one timed pass
+     */
+    private static final int MAX_TIMED_LOOKUPS = 1_000_000;
+
+    /**
+     * comparable key counting number of comparisons
+     */
+    private static final class CountingKey implements Comparable<CountingKey> {
+
+        /** number of comparisons since last reset */
+        private static long comparisons = 0;
+
+        /** key value */
+        private final int value;
+
+        CountingKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int compareTo(CountingKey other) {
+            comparisons++;
+            return Integer.compare(value, other.value);
+        }
+    }
+
+    /**
+     * expected asymptotic cost of one operation
+     */
+    private enum Complexity {
+        /** cost of operation grows with logarithm of number of nodes */
+        LOGARITHMIC,
+        /** cost of operation grows linearly with number of nodes (tree degenerates to list), total cost is quadratic */
+        LINEAR
+    }
+
+    /**
+     * measured costs of one workload run
+     */
+    private record Measurement(int scale, int size, int height, double insertComparisons, double lookupComparisons) {
+
+        /**
+         * log2 of number of nodes in tree
+         * @return log2 of size, at least 1
+         */
+        double log2Size() {
+            return Math.max(1.0, Math.log(size) / Math.log(2));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("scale=%d size=%d height=%d insert=%.2f cmp/op lookup=%.2f cmp/op",
+                    scale, size, height, insertComparisons, lookupComparisons);
+        }
+    }
+
+    /**
+     * workload - sequence of operations applied to tree
+     */
+    private enum Workload {
+        /** insert keys in ascending order */
+        SORTED(Complexity.LINEAR) {
+            @Override
+            int[] keys(int scale, Random random) {
+                int[] keys = new int[scale];
+                for (int i = 0; i < scale; i++) {
+                    keys[i] = i;
+                }
+                return keys;
+            }
+        },
+        /** insert keys in descending order */
+        REVERSE(Complexity.LINEAR) {
+            @Override
+            int[] keys(int scale, Random random) {
+                int[] keys = new int[scale];
+                for (int i = 0; i < scale; i++) {
+                    keys[i] = scale - i - 1;
+                }
+                return keys;
+            }
+        },
+        /** insert distinct keys in random order */
+        RANDOM(Complexity.LOGARITHMIC) {
+            @Override
+            int[] keys(int scale, Random random) {
+                return permutation(scale, random);
+            }
+        },
+        /** insert keys drawn from Zipf distribution - few keys are very popular, most of them are rare */
+        ZIPF(Complexity.LOGARITHMIC) {
+            @Override
+            int[] keys(int scale, Random random) {
+                double[] cdf = new double[scale];
+                double sum = 0;
+                for (int rank = 0; rank < scale; rank++) {
+                    sum += 1.0 / Math.pow(rank + 1, ZIPF_EXPONENT);
+                    cdf[rank] = sum;
+                }
+                // popularity of key doesn't depend on its order
+                int[] keyOfRank = permutation(scale, random);
+                int[] keys = new int[scale];
+                for (int i = 0; i < scale; i++) {
+                    int rank = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+                    if (rank < 0) {
+                        rank = -rank - 1;
+                    }
+                    keys[i] = keyOfRank[Math.min(rank, scale - 1)];
+                }
+                return keys;
+            }
+        },
+        /** insert random keys, when window is full, delete the oldest key before each insert */
+        SLIDING_WINDOW(Complexity.LOGARITHMIC) {
+            @Override
+            int[] keys(int scale, Random random) {
+                // twice as many keys as fit into the window, so the whole window is replaced once
+                return permutation(2 * scale, random);
+            }
+
+            @Override
+            int windowSize(int scale) {
+                return scale;
+            }
+        };
+
+        /** expected cost of one operation */
+        final Complexity complexity;
+
+        Workload(Complexity complexity) {
+            this.complexity = complexity;
+        }
+
+        /**
+         * generate keys to insert
+         * @param scale number of keys
+         * @param random random generator
+         * @return keys in insertion order
+         */
+        abstract int[] keys(int scale, Random random);
+
+        /**
+         * max number of keys in tree, older keys are deleted
+         * @param scale scale of workload
+         * @return size of window
+         */
+        int windowSize(int scale) {
+            return Integer.MAX_VALUE;
+        }
+
+        /**
+         * random permutation of numbers 0 .. size - 1
+         * @param size size of permutation
+         * @param random random generator
+         * @return shuffled numbers
+         */
+        static int[] permutation(int size, Random random) {
+            int[] permutation = new int[size];
+            for (int i = 0; i < size; i++) {
+                permutation[i] = i;
+            }
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = permutation[i];
+                permutation[i] = permutation[j];
+                permutation[j] = tmp;
+            }
+            return permutation;
+        }
+    }
+
+    /**
+     * scales of workload - powers of ten from 10^3 to max scale
+     * @param workload workload to measure
+     * @return list of scales
+     */
+    private static List<Integer> scales(Workload workload) {
+        int maxScale = workload.complexity == Complexity.LINEAR
+                ? Math.min(MAX_SCALE, MAX_DEGENERATE_SCALE)
+                : MAX_SCALE;
+        List<Integer> scales = new ArrayList<>();
+        for (int scale = 1_000; scale <= maxScale; scale *= 10) {
+            scales.add(scale);
+        }
+        return scales;
+    }
+
+    /**
+     * run workload and count comparisons
+     * @param workload workload to run
+     * @param scale scale of workload
+     * @return measured costs
+     */
+    private static Measurement measure(Workload workload, int scale) {
+        Random random = new Random(SEED);
+        int[] keys = workload.keys(scale, random);
+        int window = workload.windowSize(scale);
+        BinarySearchTree<CountingKey> tree = new BinarySearchTree<>();
+
+        // insert phase (including deletes of keys, which left the window)
+        CountingKey.comparisons = 0;
+        long operations = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i >= window) {
+                tree.delete(new CountingKey(keys[i - window]));
+                operations++;
+            }
+            tree.insert(new CountingKey(keys[i]));
+            operations++;
+        }
+        double insertComparisons = (double) CountingKey.comparisons / operations;
+
+        // lookup phase - every key, which should still be in tree
+        int from = Math.max(0, keys.length - window);
+        CountingKey.comparisons = 0;
+        for (int i = from; i < keys.length; i++) {
+            assertTrue(tree.contain(new CountingKey(keys[i])));
+        }
+        double lookupComparisons = (double) CountingKey.comparisons / (keys.length - from);
+
+        int size = (int) Arrays.stream(keys, from, keys.length).distinct().count();
+        return new Measurement(scale, size, tree.height(), insertComparisons, lookupComparisons);
+    }
+
+    /**
+     * run workload in thread with large stack, degenerated tree is traversed recursively
+     * @param workload workload to run
+     * @param scale scale of workload
+     * @return measured costs
+     */
+    private static Measurement measureWithLargeStack(Workload workload, int scale) throws Throwable {
+        Measurement[] result = new Measurement[1];
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                result[0] = measure(workload, scale);
+            } catch (Throwable throwable) {
+                failure[0] = throwable;
+            }
+        }, "perf-" + workload, STACK_SIZE);
+        thread.start();
+        thread.join();
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return result[0];
+    }
+
+    @ParameterizedTest
+    @EnumSource(Workload.class)
+    @DisplayName("comparisons per operation and height stay within complexity bounds")
+    void complexityBounds(Workload workload) throws Throwable {
+        List<Measurement> measurements = new ArrayList<>();
+        for (int scale : scales(workload)) {
+            Measurement measurement = measureWithLargeStack(workload, scale);
+            System.out.println(workload + ": " + measurement);
+            measurements.add(measurement);
+
+            if (workload.complexity == Complexity.LOGARITHMIC) {
+                assertLogarithmic(measurement);
+            } else {
+                assertLinear(measurement);
+            }
+        }
+
+        if (workload.complexity == Complexity.LOGARITHMIC) {
+            assertLogarithmicGrowth(measurements.get(0), measurements.get(measurements.size() - 1));
+        }
+    }
+
+    @Test
+    @DisplayName("frozen tree makes one comparison per level and is benchmarked against pointer tree")
+    void frozenLookups() {
+        for (int scale : scales(Workload.RANDOM)) {
+            Random random = new Random(SEED);
+            int[] keys = Workload.RANDOM.keys(scale, random);
+            BinarySearchTree<CountingKey> tree = new BinarySearchTree<>();
+            for (int key : keys) {
+                tree.insert(new CountingKey(key));
+            }
+            FrozenBinarySearchTree<CountingKey> frozen = tree.freeze();
+            FrozenIntBinarySearchTree frozenInt = tree.freezeToInt(key -> key.value);
+
+            // look up in different order than inserted, timed passes are capped to keep large scales fast
+            int lookups = Math.min(scale, MAX_TIMED_LOOKUPS);
+            CountingKey[] needles = new CountingKey[lookups];
+            int[] permutation = Workload.permutation(scale, random);
+            for (int i = 0; i < lookups; i++) {
+                needles[i] = new CountingKey(keys[permutation[i]]);
+            }
+
+            CountingKey.comparisons = 0;
+            for (CountingKey needle : needles) {
+                assertTrue(frozen.contain(needle));
+            }
+            // one comparison per level of complete tree and one equality check
+            double frozenComparisons = (double) CountingKey.comparisons / lookups;
+
+            double pointerTime = medianNanosPerLookup(lookups, () -> {
+                int found = 0;
+                for (CountingKey needle : needles) {
+                    found += tree.contain(needle) ? 1 : 0;
+                }
+                return found;
+            });
+            double frozenTime = medianNanosPerLookup(lookups, () -> {
+                int found = 0;
+                for (CountingKey needle : needles) {
+                    found += frozen.contain(needle) ? 1 : 0;
+                }
+                return found;
+            });
+            double frozenIntTime = medianNanosPerLookup(lookups, () -> {
+                int found = 0;
+                for (CountingKey needle : needles) {
+                    found += frozenInt.contain(needle.value) ? 1 : 0;
+                }
+                return found;
+            });
+
+            System.out.printf("FROZEN: scale=%d lookup=%.2f cmp/op median of %d runs: pointer=%.1f ns/op "
+                            + "frozen=%.1f ns/op frozenInt=%.1f ns/op%n",
+                    scale, frozenComparisons, TIMED_RUNS, pointerTime, frozenTime, frozenIntTime);
+
+            int levels = 32 - Integer.numberOfLeadingZeros(scale);
+            assertTrue(frozenComparisons <= levels + 1,
+                    "frozen lookup comparisons exceed number of levels: " + frozenComparisons);
+        }
+    }
+
+    /**
+     * run lookup pass repeatedly after warm-up, so JIT compiled it, and measure median time
+     * @param lookups number of lookups in one pass
+     * @param pass lookup pass returning number of found keys
+     * @return median nanoseconds per lookup
+     */
+    private static double medianNanosPerLookup(int lookups, IntSupplier pass) {
+        int warmupRuns = Math.max(WARMUP_RUNS, WARMUP_LOOKUPS / lookups);
+        for (int i = 0; i < warmupRuns; i++) {
+            assertEquals(lookups, pass.getAsInt());
+        }
+        long[] times = new long[TIMED_RUNS];
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            int found = pass.getAsInt();
+            times[i] = System.nanoTime() - start;
+            assertEquals(lookups, found);
+        }
+        Arrays.sort(times);
+        return (double) times[TIMED_RUNS / 2] / lookups;
+    }
+
+    /**
+     * assert, that height and comparisons per operation are bounded by c * log2(n)
+     * @param measurement measured costs
+     */
+    private static void assertLogarithmic(Measurement measurement) {
+        double log2Size = measurement.log2Size();
+        assertTrue(measurement.height() <= HEIGHT_FACTOR * log2Size,
+                "height is not logarithmic: " + measurement);
+        assertTrue(measurement.insertComparisons() <= COMPARISONS_FACTOR * log2Size,
+                "insert comparisons are not logarithmic: " + measurement);
+        assertTrue(measurement.lookupComparisons() <= COMPARISONS_FACTOR * log2Size,
+                "lookup comparisons are not logarithmic: " + measurement);
+    }
+
+    /**
+     * assert, that tree degenerated to list in the expected shape - inserting i-th key visits i nodes
+     * with one comparison each, so insert costs size / 2 comparisons on average and lookup visits
+     * between size / 2 (one comparison per node) and size (two comparisons per node) on average
+     * @param measurement measured costs
+     */
+    private static void assertLinear(Measurement measurement) {
+        double expectedInsertComparisons = measurement.size() / 2.0;
+        assertEquals(measurement.size(), measurement.height(),
+                "tree isn't degenerated to list: " + measurement);
+        assertEquals(expectedInsertComparisons, measurement.insertComparisons(),
+                LINEAR_TOLERANCE * expectedInsertComparisons,
+                "insert comparisons changed shape: " + measurement);
+        assertTrue(measurement.lookupComparisons() >= (1 - LINEAR_TOLERANCE) * measurement.size() / 2.0
+                        && measurement.lookupComparisons() <= (1 + LINEAR_TOLERANCE) * measurement.size(),
+                "lookup comparisons changed shape: " + measurement);
+    }
+
+    /**
+     * assert, that comparisons per operation grow between two scales at most proportionally to log2(n)
+     * @param smallest measured costs of smallest scale
+     * @param largest measured costs of largest scale
+     */
+    private static void assertLogarithmicGrowth(Measurement smallest, Measurement largest) {
+        double allowedGrowth = GROWTH_FACTOR * largest.log2Size() / smallest.log2Size();
+        assertTrue(largest.insertComparisons() / smallest.insertComparisons() <= allowedGrowth,
+                "insert comparisons grow faster than logarithm: " + smallest + " -> " + largest);
+        assertTrue(largest.lookupComparisons() / smallest.lookupComparisons() <= allowedGrowth,
+                "lookup comparisons grow faster than logarithm: " + smallest + " -> " + largest);
+    }
+}
@@ -1,19 +1,58 @@
 package com.janbabak.binarySearchTree;
 
+import com.janbabak.memory.MemoryFootprint;
+import com.janbabak.memory.MemoryLayout;
+
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class BinarySearchTreeTest {
 
+    /**
+     * apply the same random inserts and deletes to tree and TreeSet, after each operation compare size, min, max
+     * and contain of changed value and run check of tree mode
+     * @param binarySearchTree tested tree
+     * @param valueOf mapping of random number to value
+     * @param check additional check of tree, it gets expected values
+     * @param <V> type of value
+     * @return expected values after all operations
+     */
+    static <V extends Comparable<? super V>> TreeSet<V> randomInsertsAndDeletes(
+            BinarySearchTree<V> binarySearchTree, IntFunction<V> valueOf, Consumer<TreeSet<V>> check) {
+        TreeSet<V> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            V value = valueOf.apply(random.nextInt(200));
+            if (random.nextBoolean()) {
+                binarySearchTree.insert(value);
+                expected.add(value);
+            } else {
+                binarySearchTree.delete(value);
+                expected.remove(value);
+            }
+            assertEquals(expected.size(), binarySearchTree.size());
+            assertEquals(expected.contains(value), binarySearchTree.contain(value));
+            assertEquals(expected.isEmpty() ? null : expected.first(), binarySearchTree.min());
+            assertEquals(expected.isEmpty() ? null : expected.last(), binarySearchTree.max());
+            check.accept(expected);
+        }
+        return expected;
+    }
+
     @TestInstance(TestInstance.Lifecycle.PER_CLASS)
     @Nested
     @DisplayName("BinarySearchTree<Integer>")
@@ -339,4 +378,460 @@ class BinarySearchTreeTest {
             );
         }
     }
+
+    @Nested
+    @DisplayName("BinarySearchTree<Integer> size, min and max")
+    class BinarySearchTreeExtremesTest {
+
+        BinarySearchTree<Integer> binarySearchTree;
+
+        @BeforeEach
+        void setUp() {
+            this.binarySearchTree = new BinarySearchTree<>();
+        }
+
+        @Test
+        @DisplayName("size, min, max and contain match TreeSet after random inserts and deletes")
+        void randomInsertsAndDeletes() {
+            BinarySearchTreeTest.randomInsertsAndDeletes(binarySearchTree, Integer::valueOf, expected -> { });
+        }
+    }
+
+    @Nested
+    @DisplayName("bounded BinarySearchTree<Integer>")
+    class BoundedBinarySearchTreeTest {
+
+        @Test
+        @DisplayName("capacity must be positive and eviction must be set")
+        void invalidCapacity() {
+            assertThrows(IllegalArgumentException.class, () -> BinarySearchTree.<Integer>bounded(0, Eviction.MIN));
+            assertThrows(IllegalArgumentException.class, () -> BinarySearchTree.<Integer>bounded(3, null));
+        }
+
+        @Test
+        @DisplayName("evict min keeps the greatest values")
+        void evictMin() {
+            BinarySearchTree<Integer> binarySearchTree = BinarySearchTree.bounded(3, Eviction.MIN);
+            for (Integer value : Arrays.asList(50, 25, 75, 10, 26, 66, -5, 15, 30, 69, 0, 29, 31)) {
+                binarySearchTree.insert(value);
+                assertTrue(binarySearchTree.size() <= 3);
+            }
+
+            assertEquals(3, binarySearchTree.size());
+            assertEquals(66, binarySearchTree.min());
+            assertEquals(75, binarySearchTree.max());
+            assertTrue(binarySearchTree.contain(69));
+            assertFalse(binarySearchTree.contain(50));
+        }
+
+        @Test
+        @DisplayName("evict max keeps the least values")
+        void evictMax() {
+            BinarySearchTree<Integer> binarySearchTree = BinarySearchTree.bounded(3, Eviction.MAX);
+            for (Integer value : Arrays.asList(50, 25, 75, 10, 26, 66, -5, 15, 30, 69, 0, 29, 31)) {
+                binarySearchTree.insert(value);
+                assertTrue(binarySearchTree.size() <= 3);
+            }
+
+            assertEquals(3, binarySearchTree.size());
+            assertEquals(-5, binarySearchTree.min());
+            assertEquals(10, binarySearchTree.max());
+            assertTrue(binarySearchTree.contain(0));
+            assertFalse(binarySearchTree.contain(15));
+        }
+
+        @Test
+        @DisplayName("bounded tree keeps top-K of random values")
+        void topK() {
+            BinarySearchTree<Integer> binarySearchTree = BinarySearchTree.bounded(10, Eviction.MIN);
+            TreeSet<Integer> expected = new TreeSet<>();
+            Random random = new Random(42);
+            for (int i = 0; i < 10_000; i++) {
+                int value = random.nextInt(1_000);
+                binarySearchTree.insert(value);
+                expected.add(value);
+                if (expected.size() > 10) {
+                    expected.pollFirst();
+                }
+                assertEquals(expected.first(), binarySearchTree.min());
+                assertEquals(expected.last(), binarySearchTree.max());
+            }
+            for (Integer value : expected) {
+                assertTrue(binarySearchTree.contain(value));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("BinarySearchTree<Integer> with time to live")
+    class ExpiringBinarySearchTreeTest {
+
+        /** current time in nanoseconds */
+        long now;
+
+        BinarySearchTree<Integer> binarySearchTree;
+
+        @BeforeEach
+        void setUp() {
+            this.now = 0;
+            this.binarySearchTree = BinarySearchTree.withTimeToLive(Duration.ofNanos(10), () -> now);
+        }
+
+        @Test
+        @DisplayName("time to live must be positive")
+        void invalidTimeToLive() {
+            assertThrows(IllegalArgumentException.class, () -> BinarySearchTree.<Integer>withTimeToLive(Duration.ZERO));
+        }
+
+        @Test
+        @DisplayName("values expire after time to live")
+        void expire() {
+            binarySearchTree.insert(5);
+            now = 5;
+            binarySearchTree.insert(3);
+            binarySearchTree.insert(8);
+
+            now = 9;
+            assertTrue(binarySearchTree.contain(5));
+            now = 10;
+            assertFalse(binarySearchTree.contain(5));
+            assertTrue(binarySearchTree.contain(3));
+            assertEquals(3, binarySearchTree.min());
+            assertEquals(8, binarySearchTree.max());
+
+            now = 15;
+            assertNull(binarySearchTree.min());
+            assertNull(binarySearchTree.max());
+            assertTrue(binarySearchTree.empty());
+        }
+
+        @Test
+        @DisplayName("expired values are removed incrementally")
+        void incrementalExpiration() {
+            for (int value = 0; value < 100; value++) {
+                binarySearchTree.insert(value);
+            }
+            now = 10;
+
+            // each operation removes only few expired values, sorted inserts made list, so height is number of nodes
+            assertFalse(binarySearchTree.contain(50));
+            assertEquals(98, binarySearchTree.height());
+            for (int i = 0; i < 10; i++) {
+                binarySearchTree.contain(-1);
+            }
+            assertEquals(78, binarySearchTree.height());
+        }
+
+        @Test
+        @DisplayName("size doesn't count expired values")
+        void size() {
+            for (int value = 0; value < 100; value++) {
+                now = value;
+                binarySearchTree.insert(value);
+            }
+
+            now = 100;
+            assertEquals(9, binarySearchTree.size());
+            assertEquals(9, binarySearchTree.height());
+            now = 109;
+            assertEquals(0, binarySearchTree.size());
+            assertTrue(binarySearchTree.empty());
+        }
+
+        @Test
+        @DisplayName("expired value inserted again is renewed")
+        void renew() {
+            binarySearchTree.insert(5);
+            now = 10;
+            binarySearchTree.insert(5);
+            now = 15;
+            assertTrue(binarySearchTree.contain(5));
+            now = 20;
+            assertFalse(binarySearchTree.contain(5));
+        }
+
+        @Test
+        @DisplayName("deleted value inserted again doesn't expire by old time to live")
+        void deleteAndInsertAgain() {
+            binarySearchTree.insert(5);
+            binarySearchTree.delete(5);
+            now = 5;
+            binarySearchTree.insert(5);
+            now = 10;
+            binarySearchTree.insert(6);
+            assertTrue(binarySearchTree.contain(5));
+            assertEquals(2, binarySearchTree.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("BinarySearchTree<Integer> with lazy deletion")
+    class LazyDeletionBinarySearchTreeTest {
+
+        BinarySearchTree<Integer> binarySearchTree;
+
+        @BeforeEach
+        void setUp() {
+            this.binarySearchTree = BinarySearchTree.withLazyDeletion(0.5);
+        }
+
+        @Test
+        @DisplayName("compaction threshold must be between 0 and 1")
+        void invalidThreshold() {
+            assertThrows(IllegalArgumentException.class, () -> BinarySearchTree.<Integer>withLazyDeletion(0.0));
+            assertThrows(IllegalArgumentException.class, () -> BinarySearchTree.<Integer>withLazyDeletion(1.0));
+        }
+
+        @Test
+        @DisplayName("deleted values are skipped without restructuring tree")
+        void deleteWithoutRestructuring() {
+            for (Integer value : Arrays.asList(50, 25, 75, 10, 26, 66, -5, 15, 30, 69, 0, 29, 31)) {
+                binarySearchTree.insert(value);
+            }
+            int height = binarySearchTree.height();
+
+            binarySearchTree.delete(50);
+            binarySearchTree.delete(75);
+            binarySearchTree.delete(-5);
+
+            assertEquals(height, binarySearchTree.height());
+            assertFalse(binarySearchTree.contain(50));
+            assertNull(binarySearchTree.findByValue(50));
+            assertEquals(10, binarySearchTree.size());
+            assertEquals(0, binarySearchTree.min());
+            assertEquals(69, binarySearchTree.max());
+        }
+
+        @Test
+        @DisplayName("deleted value inserted again is contained")
+        void deleteAndInsertAgain() {
+            binarySearchTree.insert(5);
+            binarySearchTree.insert(3);
+            binarySearchTree.delete(5);
+            binarySearchTree.insert(5);
+
+            assertTrue(binarySearchTree.contain(5));
+            assertEquals(2, binarySearchTree.size());
+            assertEquals(5, binarySearchTree.max());
+        }
+
+        @Test
+        @DisplayName("delete and insert churn below compaction threshold doesn't grow footprint")
+        void churnBelowThreshold() {
+            for (int value = 0; value < 1_000; value++) {
+                binarySearchTree.insert(value);
+            }
+            long before = binarySearchTree.memoryFootprint().getTotalBytes();
+
+            for (int round = 0; round < 100_000; round++) {
+                binarySearchTree.delete(round % 10);
+                binarySearchTree.insert(round % 10);
+            }
+
+            assertEquals(1_000, binarySearchTree.size());
+            // queue of tombstones holds only few stale values
+            assertTrue(binarySearchTree.memoryFootprint().getTotalBytes() <= before + 64,
+                    "footprint grew: " + binarySearchTree.memoryFootprint());
+        }
+
+        @Test
+        @DisplayName("tombstones are removed incrementally")
+        void compaction() {
+            Random random = new Random(42);
+            for (int i = 0; i < 100; i++) {
+                binarySearchTree.insert(random.nextInt(1_000));
+            }
+            for (int value = 0; value < 1_000; value++) {
+                binarySearchTree.delete(value);
+            }
+            for (int i = 0; i < 100; i++) {
+                binarySearchTree.contain(-1);
+            }
+
+            assertTrue(binarySearchTree.empty());
+            assertEquals(0, binarySearchTree.height());
+        }
+
+        @Test
+        @DisplayName("tombstones are hidden from snapshot after random inserts and deletes")
+        void randomInsertsAndDeletes() {
+            BinarySearchTreeTest.randomInsertsAndDeletes(binarySearchTree, Integer::valueOf, expected ->
+                    assertEquals(expected.size(), binarySearchTree.freeze().size()));
+        }
+    }
+
+    @Nested
+    @DisplayName("AggregateBinarySearchTree<Integer>")
+    class AggregateBinarySearchTreeTest {
+
+        /** sum of values */
+        final Monoid<Integer, Long> sum = Monoid.of(0L, Integer::longValue, Long::sum);
+
+        /** values joined in order, it isn't commutative */
+        final Monoid<Integer, String> join = Monoid.of("", String::valueOf, (left, right) ->
+                left.isEmpty() || right.isEmpty() ? left + right : left + "," + right);
+
+        @Test
+        @DisplayName("monoid must be set")
+        void withoutMonoid() {
+            assertThrows(IllegalArgumentException.class, () -> new AggregateBinarySearchTree<Integer, Long>(null));
+        }
+
+        @Test
+        @DisplayName("aggregate of empty range is identity")
+        void emptyRange() {
+            AggregateBinarySearchTree<Integer, Long> binarySearchTree = new AggregateBinarySearchTree<>(sum);
+            assertEquals(0L, binarySearchTree.aggregate(0, 10));
+            binarySearchTree.insert(5);
+            assertEquals(0L, binarySearchTree.aggregate(6, 10));
+            assertEquals(0L, binarySearchTree.aggregate(10, 0));
+        }
+
+        @Test
+        @DisplayName("aggregate combines values in order")
+        void order() {
+            AggregateBinarySearchTree<Integer, String> binarySearchTree = new AggregateBinarySearchTree<>(join);
+            for (Integer value : Arrays.asList(50, 25, 75, 10, 26, 66, -5, 15, 30, 69, 0, 29, 31)) {
+                binarySearchTree.insert(value);
+            }
+
+            assertEquals("-5,0,10,15,25,26,29,30,31,50,66,69,75", binarySearchTree.aggregate(-100, 100));
+            assertEquals("10,15,25,26,29", binarySearchTree.aggregate(10, 29));
+            binarySearchTree.delete(25);
+            binarySearchTree.delete(-5);
+            binarySearchTree.delete(75);
+            assertEquals("0,10,15,26,29,30,31,50,66,69", binarySearchTree.aggregate(-100, 100));
+            assertEquals("26,29,30,31,50", binarySearchTree.aggregate(20, 60));
+        }
+
+        @Test
+        @DisplayName("aggregate matches TreeSet after random inserts and deletes")
+        void randomInsertsAndDeletes() {
+            AggregateBinarySearchTree<Integer, Long> binarySearchTree = new AggregateBinarySearchTree<>(sum);
+            Random random = new Random(7);
+            BinarySearchTreeTest.randomInsertsAndDeletes(binarySearchTree, Integer::valueOf, expected -> {
+                int from = random.nextInt(200);
+                int to = from + random.nextInt(50);
+                long expectedSum = 0;
+                for (Integer inRange : expected.subSet(from, true, to, true)) {
+                    expectedSum += inRange;
+                }
+                assertEquals(expectedSum, binarySearchTree.aggregate(from, to));
+            });
+        }
+
+        @Test
+        @DisplayName("footprint counts summary cached by each node")
+        void memoryFootprint() {
+            BinarySearchTree<Integer> plainTree = new BinarySearchTree<>();
+            AggregateBinarySearchTree<Integer, Long> binarySearchTree = new AggregateBinarySearchTree<>(sum);
+            for (int value = 1_000; value < 1_100; value++) {
+                plainTree.insert(value);
+                binarySearchTree.insert(value);
+            }
+
+            assertEquals(plainTree.memoryFootprint().getValueBytes() + 100 * MemoryLayout.sizeOf(0L),
+                    binarySearchTree.memoryFootprint().getValueBytes());
+            for (int value = 1_000; value < 1_100; value++) {
+                binarySearchTree.delete(value);
+            }
+            assertEquals(0, binarySearchTree.memoryFootprint().getValueBytes());
+        }
+    }
+
+    @Nested
+    @DisplayName("BinarySearchTree memory footprint")
+    class MemoryFootprintTest {
+
+        @Test
+        @DisplayName("footprint grows by node and value with each inserted value")
+        void insert() {
+            BinarySearchTree<Integer> binarySearchTree = new BinarySearchTree<>();
+            MemoryFootprint empty = binarySearchTree.memoryFootprint();
+            assertEquals(0, empty.getEntries());
+            assertEquals(0, empty.getValueBytes());
+            assertEquals(0, empty.getBytesPerEntry());
+
+            binarySearchTree.insert(1_000);
+            long perEntry = binarySearchTree.memoryFootprint().getTotalBytes() - empty.getTotalBytes();
+            for (int value = 1_001; value < 1_100; value++) {
+                binarySearchTree.insert(value);
+            }
+            binarySearchTree.insert(1_000);
+
+            MemoryFootprint footprint = binarySearchTree.memoryFootprint();
+            assertEquals(100, footprint.getEntries());
+            assertEquals(empty.getTotalBytes() + 100 * perEntry, footprint.getTotalBytes());
+            assertEquals(footprint.getHeaderBytes() + footprint.getReferenceBytes() + footprint.getPrimitiveBytes()
+                    + footprint.getPaddingBytes() + footprint.getValueBytes(), footprint.getTotalBytes());
+            assertEquals((double) footprint.getTotalBytes() / 100, footprint.getBytesPerEntry());
+        }
+
+        @Test
+        @DisplayName("only trees with time to live and aggregates have larger nodes")
+        void nodeSizes() {
+            long plain = nodeBytes(new BinarySearchTree<>());
+            assertEquals(plain, nodeBytes(BinarySearchTree.bounded(10, Eviction.MIN)));
+            assertEquals(plain, nodeBytes(BinarySearchTree.withLazyDeletion(0.5)));
+            assertTrue(nodeBytes(BinarySearchTree.withTimeToLive(Duration.ofHours(1))) > plain);
+            assertTrue(nodeBytes(new AggregateBinarySearchTree<>(Monoid.of(0L, Integer::longValue, Long::sum)))
+                    > plain);
+            if (MemoryLayout.REFERENCE_SIZE == 4 && MemoryLayout.HEADER_SIZE == 12) {
+                // header, 4 compressed references and deleted flag fit into 32 bytes
+                assertEquals(32, plain);
+            }
+        }
+
+        @Test
+        @DisplayName("footprint is maintained by random inserts and deletes")
+        void randomInsertsAndDeletes() {
+            BinarySearchTree<String> binarySearchTree = new BinarySearchTree<>();
+            TreeSet<String> expected = BinarySearchTreeTest.randomInsertsAndDeletes(binarySearchTree,
+                    number -> "value-" + number, values -> { });
+
+            // tree built from scratch with the same values has the same footprint
+            BinarySearchTree<String> rebuilt = new BinarySearchTree<>();
+            for (String value : expected) {
+                rebuilt.insert(value);
+            }
+            assertEquals(rebuilt.memoryFootprint().toString(), binarySearchTree.memoryFootprint().toString());
+
+            for (String value : expected) {
+                binarySearchTree.delete(value);
+            }
+            assertEquals(new BinarySearchTree<String>().memoryFootprint().toString(),
+                    binarySearchTree.memoryFootprint().toString());
+        }
+
+        @Test
+        @DisplayName("frozen layouts are smaller than pointer tree")
+        void layouts() {
+            BinarySearchTree<Integer> binarySearchTree = new BinarySearchTree<>();
+            Random random = new Random(42);
+            for (int i = 0; i < 1_000; i++) {
+                binarySearchTree.insert(random.nextInt());
+            }
+
+            MemoryFootprint pointer = binarySearchTree.memoryFootprint();
+            MemoryFootprint frozen = binarySearchTree.freeze().memoryFootprint();
+            MemoryFootprint frozenInt = binarySearchTree.freezeToInt(Integer::intValue).memoryFootprint();
+
+            assertEquals(pointer.getEntries(), frozen.getEntries());
+            assertEquals(pointer.getValueBytes(), frozen.getValueBytes());
+            assertEquals(0, frozenInt.getValueBytes());
+            assertTrue(frozen.getTotalBytes() < pointer.getTotalBytes());
+            assertTrue(frozenInt.getTotalBytes() < frozen.getTotalBytes());
+        }
+
+        /**
+         * measure bytes of one node without value
+         * @param binarySearchTree empty tree
+         * @return overhead of inserting one value
+         */
+        private long nodeBytes(BinarySearchTree<Integer> binarySearchTree) {
+            long empty = binarySearchTree.memoryFootprint().getOverheadBytes();
+            binarySearchTree.insert(1_000);
+            return binarySearchTree.memoryFootprint().getOverheadBytes() - empty;
+        }
+    }
 }
@@ -0,0 +1,173 @@
+package com.janbabak.binarySearchTree;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FrozenBinarySearchTreeTest {
+
+    /**
+     * data source of inputs
+     * @return list of lists of Integers
+     */
+    private static List<List<Integer>> listsOfIntegers() {
+        return Arrays.asList(
+                List.of(7),
+                Arrays.asList(1, 2, 3, 4, 5),
+                Arrays.asList(-1, -2, -3, -4, -5, -6),
+                Arrays.asList(5, 3, 2, 1, 6, 10, 9),
+                Arrays.asList(50, 25, 75, 10, 26, 66, -5, 15, 30, 69, 0, 29, 31),
+                Arrays.asList(-15, 20, 0, 1, 44, 1000, 999, 997, 998, -99, 5, 8, 123)
+        );
+    }
+
+    /**
+     * create tree containing values
+     * @param data values to insert
+     * @return tree
+     */
+    private static BinarySearchTree<Integer> treeOf(List<Integer> data) {
+        BinarySearchTree<Integer> binarySearchTree = new BinarySearchTree<>();
+        for (Integer value : data) {
+            binarySearchTree.insert(value);
+        }
+        return binarySearchTree;
+    }
+
+    @Nested
+    @DisplayName("FrozenBinarySearchTree<Integer>")
+    class FrozenBinarySearchTreeIntegerTest {
+
+        @Test
+        @DisplayName("frozen empty tree should be empty")
+        void isEmpty() {
+            FrozenBinarySearchTree<Integer> frozen = new BinarySearchTree<Integer>().freeze();
+            assertTrue(frozen.empty());
+            assertEquals(0, frozen.size());
+            assertNull(frozen.min());
+            assertNull(frozen.max());
+            assertNull(frozen.floor(0));
+            assertNull(frozen.ceiling(0));
+            assertFalse(frozen.contain(0));
+        }
+
+        @ParameterizedTest
+        @MethodSource("com.janbabak.binarySearchTree.FrozenBinarySearchTreeTest#listsOfIntegers")
+        @DisplayName("contain, min and max match the pointer tree")
+        void containMinMax(List<Integer> data) {
+            BinarySearchTree<Integer> binarySearchTree = treeOf(data);
+            FrozenBinarySearchTree<Integer> frozen = binarySearchTree.freeze();
+
+            assertEquals(data.size(), frozen.size());
+            for (Integer value : data) {
+                assertTrue(frozen.contain(value));
+            }
+            assertEquals(binarySearchTree.min(), frozen.min());
+            assertEquals(binarySearchTree.max(), frozen.max());
+        }
+
+        @ParameterizedTest
+        @MethodSource("com.janbabak.binarySearchTree.FrozenBinarySearchTreeTest#listsOfIntegers")
+        @DisplayName("contain, floor and ceiling match TreeSet")
+        void floorCeiling(List<Integer> data) {
+            FrozenBinarySearchTree<Integer> frozen = treeOf(data).freeze();
+            TreeSet<Integer> expected = new TreeSet<>(data);
+
+            for (int value = expected.first() - 2; value <= expected.last() + 2; value++) {
+                assertEquals(expected.contains(value), frozen.contain(value));
+                assertEquals(expected.floor(value), frozen.floor(value));
+                assertEquals(expected.ceiling(value), frozen.ceiling(value));
+            }
+        }
+
+        @Test
+        @DisplayName("changes of tree don't affect snapshot")
+        void snapshotIsIndependent() {
+            BinarySearchTree<Integer> binarySearchTree = treeOf(Arrays.asList(1, 2, 3));
+            FrozenBinarySearchTree<Integer> frozen = binarySearchTree.freeze();
+            binarySearchTree.delete(2);
+            binarySearchTree.insert(4);
+
+            assertTrue(frozen.contain(2));
+            assertFalse(frozen.contain(4));
+        }
+    }
+
+    @Nested
+    @DisplayName("FrozenIntBinarySearchTree")
+    class FrozenIntBinarySearchTreeTest {
+
+        @Test
+        @DisplayName("frozen empty tree should be empty")
+        void isEmpty() {
+            FrozenIntBinarySearchTree frozen = new BinarySearchTree<Integer>().freezeToInt(Integer::intValue);
+            assertTrue(frozen.empty());
+            assertEquals(0, frozen.size());
+            assertThrows(NoSuchElementException.class, frozen::min);
+            assertThrows(NoSuchElementException.class, frozen::max);
+            assertEquals(OptionalInt.empty(), frozen.floor(0));
+            assertEquals(OptionalInt.empty(), frozen.ceiling(0));
+            assertFalse(frozen.contain(0));
+        }
+
+        @Test
+        @DisplayName("mapping, which doesn't preserve order or isn't injective, is rejected")
+        void invalidMapping() {
+            BinarySearchTree<Integer> binarySearchTree = treeOf(Arrays.asList(50, 25, 75, 10, 26, 66, -5));
+            assertThrows(IllegalArgumentException.class, () -> binarySearchTree.freezeToInt(value -> -value));
+            assertThrows(IllegalArgumentException.class, () -> binarySearchTree.freezeToInt(value -> value / 10));
+
+            BinarySearchTree<Long> longTree = new BinarySearchTree<>();
+            longTree.insert(1L);
+            longTree.insert(1L << 32);  // overflows to 0
+            assertThrows(IllegalArgumentException.class, () -> longTree.freezeToInt(Long::intValue));
+        }
+
+        @ParameterizedTest
+        @MethodSource("com.janbabak.binarySearchTree.FrozenBinarySearchTreeTest#listsOfIntegers")
+        @DisplayName("contain, min and max match the pointer tree")
+        void containMinMax(List<Integer> data) {
+            BinarySearchTree<Integer> binarySearchTree = treeOf(data);
+            FrozenIntBinarySearchTree frozen = binarySearchTree.freezeToInt(Integer::intValue);
+
+            assertEquals(data.size(), frozen.size());
+            for (Integer value : data) {
+                assertTrue(frozen.contain(value));
+            }
+            assertEquals((int) binarySearchTree.min(), frozen.min());
+            assertEquals((int) binarySearchTree.max(), frozen.max());
+        }
+
+        @ParameterizedTest
+        @MethodSource("com.janbabak.binarySearchTree.FrozenBinarySearchTreeTest#listsOfIntegers")
+        @DisplayName("contain, floor and ceiling match TreeSet")
+        void floorCeiling(List<Integer> data) {
+            FrozenIntBinarySearchTree frozen = treeOf(data).freezeToInt(Integer::intValue);
+            TreeSet<Integer> expected = new TreeSet<>(data);
+
+            for (int value = expected.first() - 2; value <= expected.last() + 2; value++) {
+                assertEquals(expected.contains(value), frozen.contain(value));
+                assertEquals(optionalOf(expected.floor(value)), frozen.floor(value));
+                assertEquals(optionalOf(expected.ceiling(value)), frozen.ceiling(value));
+            }
+        }
+
+        /**
+         * convert nullable result of TreeSet to optional
+         * @param value value or null
+         * @return optional of value or empty optional if value is null
+         */
+        private OptionalInt optionalOf(Integer value) {
+            return value == null ? OptionalInt.empty() : OptionalInt.of(value);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.janbabak.binarySearchTree;
+
+import com.janbabak.memory.MemoryFootprint;
+import com.janbabak.radixTree.RadixTree;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * validates memory footprint estimates against heap usage measured around allocation of data structure,
+ * heap measurements need full garbage collections, so it runs with performance tests: ./gradlew perfTest
+ */
+@Tag("performance")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class MemoryFootprintHeapTest {
+
+    /**
+     * number of inserted values, large enough to hide noise of measurement
+     */
+    private static final int ENTRIES = 500_000;
+
+    /**
+     * max allowed relative difference of estimate and measurement
+     */
+    private static final double TOLERANCE = 0.1;
+
+    /**
+     * seed of random generator, so failures are reproducible
+     */
+    private static final long SEED = 42;
+
+    /**
+     * keys to insert, generated before measurements, boxed values are allocated during measurement
+     */
+    private int[] keys;
+
+    /**
+     * tree with integer values, which frozen trees are created from
+     */
+    private BinarySearchTree<Integer> integerTree;
+
+    @BeforeAll
+    void setUp() {
+        Random random = new Random(SEED);
+        keys = new int[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            // outside of Integer cache, so every value is a separate object
+            keys[i] = 1_000 + random.nextInt(Integer.MAX_VALUE - 1_000);
+        }
+        integerTree = integerTree();
+    }
+
+    @Test
+    @DisplayName("pointer tree of integers")
+    void pointerIntegerTree() {
+        measure("BinarySearchTree<Integer>", this::integerTree,
+                tree -> tree.memoryFootprint().getTotalBytes(), BinarySearchTree::memoryFootprint);
+    }
+
+    @Test
+    @DisplayName("pointer tree of strings")
+    void pointerStringTree() {
+        measure("BinarySearchTree<String>", () -> {
+            BinarySearchTree<String> tree = new BinarySearchTree<>();
+            for (int key : keys) {
+                tree.insert("https://example.com/" + key);
+            }
+            return tree;
+        }, tree -> tree.memoryFootprint().getTotalBytes(), BinarySearchTree::memoryFootprint);
+    }
+
+    @Test
+    @DisplayName("radix tree of strings")
+    void radixTree() {
+        measure("RadixTree", () -> {
+            RadixTree tree = new RadixTree();
+            for (int key : keys) {
+                tree.insert("https://example.com/" + key);
+            }
+            return tree;
+        }, tree -> tree.memoryFootprint().getTotalBytes(), RadixTree::memoryFootprint);
+    }
+
+    @Test
+    @DisplayName("frozen tree shares values with pointer tree")
+    void frozenTree() {
+        measure("FrozenBinarySearchTree<Integer>", () -> integerTree.freeze(),
+                frozen -> frozen.memoryFootprint().getOverheadBytes(), FrozenBinarySearchTree::memoryFootprint);
+    }
+
+    @Test
+    @DisplayName("frozen tree of int keys")
+    void frozenIntTree() {
+        measure("FrozenIntBinarySearchTree", () -> integerTree.freezeToInt(Integer::intValue),
+                frozen -> frozen.memoryFootprint().getTotalBytes(), FrozenIntBinarySearchTree::memoryFootprint);
+    }
+
+    /**
+     * create tree of boxed keys
+     * @return tree
+     */
+    private BinarySearchTree<Integer> integerTree() {
+        BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+        for (int key : keys) {
+            tree.insert(key);
+        }
+        return tree;
+    }
+
+    /**
+     * allocate data structure, measure heap growth and compare it to estimate
+     * @param name name of data structure
+     * @param factory allocation of data structure
+     * @param estimate estimated bytes, which allocation should retain
+     * @param footprint full footprint to report
+     * @param <S> type of data structure
+     */
+    private static <S> void measure(String name, Supplier<S> factory, ToLongFunction<S> estimate,
+                                    Function<S, MemoryFootprint> footprint) {
+        long before = usedHeap();
+        S structure = factory.get();
+        long measured = usedHeap() - before;
+        long estimated = estimate.applyAsLong(structure);
+
+        System.out.printf("%s: measured=%d estimated=%d footprint=%s%n",
+                name, measured, estimated, footprint.apply(structure));
+        assertEquals(measured, estimated, TOLERANCE * measured,
+                name + " estimate differs from measured heap usage");
+
+        Reference.reachabilityFence(structure);
+    }
+
+    /**
+     * measure used heap after garbage collection
+     * @return used bytes of heap
+     */
+    private static long usedHeap() {
+        // heap of large structure shrinks by several collections, background threads of test runner allocate
+        // meanwhile, so collect until the least measurement doesn't decrease
+        long used = Long.MAX_VALUE;
+        for (int stable = 0, i = 0; stable < 3 && i < 20; i++) {
+            System.gc();
+            long current = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+            if (current < used) {
+                used = current;
+                stable = 0;
+            } else {
+                stable++;
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,213 @@
+package com.janbabak.radixTree;
+
+import com.janbabak.memory.MemoryFootprint;
+import com.janbabak.memory.MemoryLayout;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RadixTreeTest {
+
+    RadixTree radixTree;
+
+    @BeforeEach
+    void setUp() {
+        this.radixTree = new RadixTree();
+    }
+
+    @Test
+    @DisplayName("empty tree should be empty")
+    void isEmpty() {
+        assertTrue(radixTree.empty());
+        assertNull(radixTree.min());
+        assertNull(radixTree.max());
+    }
+
+    @Test
+    @DisplayName("insert value more times, delete it")
+    void insertSameValueMoreTimes() {
+        radixTree.insert("five");
+        radixTree.insert("five");
+
+        assertTrue(radixTree.contain("five"));
+        radixTree.delete("five");
+        assertFalse(radixTree.contain("five"));
+        assertTrue(radixTree.empty());
+    }
+
+    @Test
+    @DisplayName("empty string is a value")
+    void emptyString() {
+        radixTree.insert("a");
+        assertFalse(radixTree.contain(""));
+        radixTree.insert("");
+
+        assertTrue(radixTree.contain(""));
+        assertEquals("", radixTree.min());
+        radixTree.delete("");
+        assertFalse(radixTree.contain(""));
+        assertEquals("a", radixTree.min());
+    }
+
+    @Test
+    @DisplayName("prefixes and extensions of values are not contained")
+    void prefixNotContained() {
+        radixTree.insert("/usr/local/bin");
+        radixTree.insert("/usr/lib");
+
+        assertFalse(radixTree.contain("/usr"));
+        assertFalse(radixTree.contain("/usr/l"));
+        assertFalse(radixTree.contain("/usr/local/bin/java"));
+        assertFalse(radixTree.contain("/usr/local/bim"));
+        radixTree.delete("/usr/l");
+        assertTrue(radixTree.contain("/usr/local/bin"));
+        assertTrue(radixTree.contain("/usr/lib"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("listsOfStrings")
+    @DisplayName("insert values, test contain, delete values, contain values")
+    void insertDeleteContain(List<String> data) {
+        for (String value : data) {
+            radixTree.insert(value);
+        }
+        for (String value : data) {
+            assertTrue(radixTree.contain(value));
+        }
+        for (String value : data) {
+            radixTree.delete(value);
+        }
+        for (String value : data) {
+            assertFalse(radixTree.contain(value));
+        }
+        assertTrue(radixTree.empty());
+    }
+
+    @ParameterizedTest
+    @MethodSource("listsOfStrings")
+    @DisplayName("min and max are ordered as by String.compareTo")
+    void minMax(List<String> data) {
+        TreeSet<String> expected = new TreeSet<>(data);
+        for (String value : data) {
+            radixTree.insert(value);
+        }
+
+        // delete min and max alternately, remaining values stay contained
+        boolean deleteMin = true;
+        while (!expected.isEmpty()) {
+            assertEquals(expected.first(), radixTree.min());
+            assertEquals(expected.last(), radixTree.max());
+            String value = deleteMin ? expected.pollFirst() : expected.pollLast();
+            radixTree.delete(value);
+            assertFalse(radixTree.contain(value));
+            for (String remaining : expected) {
+                assertTrue(radixTree.contain(remaining));
+            }
+            deleteMin = !deleteMin;
+        }
+        assertTrue(radixTree.empty());
+    }
+
+    @Test
+    @DisplayName("size and footprint are maintained by random inserts, deletes, splits and merges")
+    void memoryFootprint() {
+        assertEquals(expectedFootprint().toString(), radixTree.memoryFootprint().toString());
+
+        TreeSet<String> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            // short keys of ten characters share prefixes and fill children arrays beyond initial capacity
+            StringBuilder builder = new StringBuilder();
+            for (int length = random.nextInt(5); length > 0; length--) {
+                builder.append((char) ('a' + random.nextInt(10)));
+            }
+            String value = builder.toString();
+            if (random.nextBoolean()) {
+                radixTree.insert(value);
+                expected.add(value);
+            } else {
+                radixTree.delete(value);
+                expected.remove(value);
+            }
+
+            assertEquals(expected.size(), radixTree.size());
+            assertEquals(expectedFootprint().toString(), radixTree.memoryFootprint().toString());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("listsOfStrings")
+    @DisplayName("print in order, shouldn't throw exception")
+    void printInOrderNotThrow(List<String> data) {
+        for (String value : data) {
+            radixTree.insert(value);
+        }
+        assertDoesNotThrow(() -> {
+            radixTree.printInOrder();
+            System.out.println();
+        });
+    }
+
+    /**
+     * data source
+     * @return list of lists of Strings
+     */
+    private static List<List<String>> listsOfStrings() {
+        return Arrays.asList(
+                Arrays.asList("one", "two", "three", "four", "five", "eleven"),
+                Arrays.asList("p", "e", "q", "a", "c", "b", "d", "r", "s", "u", "t", "z"),
+                Arrays.asList("test", "tester", "tea", "te", "t", "team", "toast", "testing", "tested"),
+                Arrays.asList(
+                        "https://example.com/",
+                        "https://example.com/index.html",
+                        "https://example.com/images/logo.png",
+                        "https://example.com/images/icon.png",
+                        "https://example.org/",
+                        "http://example.com/",
+                        "/usr/local/bin",
+                        "/usr/local/lib",
+                        "/usr/lib",
+                        "/usr"
+                )
+        );
+    }
+
+    /**
+     * compute footprint of tree by walking all its nodes
+     * @return footprint of tree
+     */
+    private MemoryFootprint expectedFootprint() {
+        return MemoryLayout.shallow(RadixTree.class)
+                .plus(MemoryLayout.array(int.class, Character.SIZE + 1))
+                .plus(footprintHelper(radixTree.getRoot(), 0));  // label of root is shared literal
+    }
+
+    /**
+     * recursive helper, which computes footprint of subtree
+     * @param node root of subtree
+     * @param labelBytes bytes of label of node
+     * @return footprint of subtree
+     */
+    private static MemoryFootprint footprintHelper(Node node, long labelBytes) {
+        MemoryFootprint footprint = MemoryLayout.shallow(Node.class);
+        if (node.getCapacity() > 0) {
+            footprint = footprint.plus(MemoryLayout.array(char.class, node.getCapacity()))
+                    .plus(MemoryLayout.array(Node.class, node.getCapacity()));
+        }
+        footprint = footprint.withValues(node.isTerminal() ? 1 : 0, labelBytes);
+        for (int i = 0; i < node.getChildCount(); i++) {
+            Node child = node.getChild(i);
+            footprint = footprint.plus(footprintHelper(child, MemoryLayout.sizeOf(child.getLabel())));
+        }
+        return footprint;
+    }
+}